@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * Aspiration windows for the negamax search: instead of (-INFINITY,
+ * INFINITY) the root is searched with a narrow window around a guess of its
+ * value, which cuts off more of the tree. If the value falls outside the
+ * window (fail-low or fail-high) the window is widened on that side and the
+ * root searched again. The guess is the value of a shallower search.
+ * <p>
+ * An instance can be kept between searches to collect statistics on how
+ * often they had to be repeated.
+ *
+ * @author cyberpython
+ */
+public class AspirationWindow {
+
+    public static final int DEFAULT_WIDTH = 4;
+    /** How much shallower the search giving the guess is */
+    public static final int PRESEARCH_REDUCTION = 2;
+
+    private int width;
+    private long searches;
+    private long failLows;
+    private long failHighs;
+
+    public AspirationWindow() {
+        this(DEFAULT_WIDTH);
+    }
+
+    /**
+     * The window initially extends width on each side of the guess and is
+     * doubled on the side that failed each time the search is repeated.
+     */
+    public AspirationWindow(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("The window width must be positive");
+        }
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Same as negaMax.search(n, maxDepth, deadline), but with aspiration
+     * windows. Without a guess (null) it is found with a search
+     * PRESEARCH_REDUCTION plies shallower first.
+     */
+    public boolean search(NegaMax negaMax, Node n, int maxDepth, Integer guess, Deadline deadline) {
+        if (guess == null) {
+            int depth = maxDepth - PRESEARCH_REDUCTION;
+            if (depth < 1) {
+                return negaMax.search(n, maxDepth, deadline);
+            }
+            if (!negaMax.search(n, depth, deadline)) {
+                return false;
+            }
+            guess = n.getValue();
+            n.reset();
+            if (guess == null) {
+                return negaMax.search(n, maxDepth, deadline);
+            }
+        }
+        if (!negaMax.prepare(n, maxDepth, deadline)) {
+            return true;
+        }
+
+        long delta = this.width;
+        int alpha = clamp(guess - delta);
+        int beta = clamp(guess + delta);
+        int value;
+        this.searches++;
+        while (true) {
+            value = negaMax.searchRoot(alpha, beta);
+            if (negaMax.isAborted()) {
+                return false;
+            }
+            //The search is fail-soft, so the value it returns outside the
+            //window is a bound the new window can start from:
+            if ((value <= alpha) && (alpha > -NegaMax.INFINITY)) {
+                this.failLows++;
+                delta *= 2;
+                alpha = clamp(value - delta);
+            } else if ((value >= beta) && (beta < NegaMax.INFINITY)) {
+                this.failHighs++;
+                delta *= 2;
+                beta = clamp(value + delta);
+            } else {
+                break;
+            }
+        }
+        Move best = negaMax.getBestMove();
+        if (best != null) {
+            n.setValue(value);
+            n.setNextMove(best);
+        }
+        return true;
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(-NegaMax.INFINITY, Math.min(NegaMax.INFINITY, value));
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Statistics">
+    /**
+     * The number of searches made with aspiration windows.
+     */
+    public long getSearches() {
+        return this.searches;
+    }
+
+    public long getFailLows() {
+        return this.failLows;
+    }
+
+    public long getFailHighs() {
+        return this.failHighs;
+    }
+
+    public long getReSearches() {
+        return this.failLows + this.failHighs;
+    }
+
+    /**
+     * The average number of times a search had to be repeated.
+     */
+    public double getReSearchRate() {
+        if (this.searches == 0) {
+            return 0;
+        }
+        return (double) this.getReSearches() / this.searches;
+    }
+
+    public void resetStatistics() {
+        this.searches = 0;
+        this.failLows = 0;
+        this.failHighs = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Aspiration window " + this.width + ": " + this.searches + " searches, " + this.failLows + " fail-low, "
+                + this.failHighs + " fail-high, " + (Math.round(this.getReSearchRate() * 100) / 100.0) + " re-searches per search";
+    }
+    // </editor-fold>
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * Evaluator that looks positions up in an EvaluationCache before passing
+ * them to another evaluator.
+ *
+ * @author cyberpython
+ */
+public class CachedEvaluator extends Evaluator {
+
+    //Spreads the evaluator ids over the bits of the key:
+    private static final long ID_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private Evaluator eval;
+    private EvaluationCache cache;
+    private long keyMask;
+
+    public CachedEvaluator(Evaluator eval, EvaluationCache cache) {
+        this.eval = eval;
+        this.cache = cache;
+        this.keyMask = eval.getId() * ID_MULTIPLIER;
+    }
+
+    public int evaluate(Node n) {
+        long key = n.getHash() ^ this.keyMask;
+        long cached = this.cache.probe(key);
+        if (cached != EvaluationCache.MISS) {
+            return (int) cached;
+        }
+        int value = this.eval.evaluate(n);
+        this.cache.store(key, value);
+        return value;
+    }
+
+    public int evaluate(SearchBoard b) {
+        long key = b.getHash() ^ this.keyMask;
+        long cached = this.cache.probe(key);
+        if (cached != EvaluationCache.MISS) {
+            return (int) cached;
+        }
+        int value = this.eval.evaluate(b);
+        this.cache.store(key, value);
+        return value;
+    }
+
+    @Override
+    public long getId() {
+        return this.eval.getId();
+    }
+}
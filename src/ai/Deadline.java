@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * A wall-clock time limit for a search. Searches poll hasExpired() every
+ * few hundred positions and give up the current iteration once it is true.
+ *
+ * @author cyberpython
+ */
+public class Deadline {
+
+    //Number of positions a search visits between two clock reads:
+    public static final int CHECK_INTERVAL = 1024;
+
+    private long endTime;
+    private volatile boolean expired;
+
+    /**
+     * A deadline without a time limit, which only expires when expire() is
+     * called, e.g. to stop searches running on other threads.
+     */
+    public Deadline() {
+        this.endTime = Long.MAX_VALUE;
+        this.expired = false;
+    }
+
+    public Deadline(long budgetMillis) {
+        this.endTime = System.currentTimeMillis() + budgetMillis;
+        this.expired = false;
+    }
+
+    public boolean hasExpired() {
+        if ((!this.expired) && (System.currentTimeMillis() >= this.endTime)) {
+            this.expired = true;
+        }
+        return this.expired;
+    }
+
+    public void expire() {
+        this.expired = true;
+    }
+}
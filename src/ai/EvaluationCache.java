@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of evaluations keyed by SearchBoard.getHash() mixed with
+ * Evaluator.getId(), used through CachedEvaluator.
+ *
+ * Each entry is a single long holding a validity bit, bits 32-62 of the key
+ * and the value, indexed by the lower bits of the key. The validity bit keeps
+ * an empty (0) slot from matching a key whose upper bits are 0. As a long is written at once,
+ * the table can be shared by threads without locking. A new entry always
+ * replaces the old one. The statistics are not synchronized and may miss a
+ * few counts when several threads use the table at once.
+ *
+ * @author cyberpython
+ */
+public class EvaluationCache {
+
+    //Returned by probe() when the position is not in the table:
+    public static final long MISS = Long.MIN_VALUE;
+    private static final long VALID = 0x8000000000000000L;
+    private static final long KEY_MASK = 0x7FFFFFFF00000000L;
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+
+    private long[] table;
+    private int slotMask;
+
+    private long probes;
+    private long hits;
+    private long stores;
+
+    public EvaluationCache(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long slots = Long.highestOneBit(bytes / 8);
+        //Keep the array within the limits of a Java array:
+        slots = Math.min(slots, 1L << 30);
+        this.table = new long[(int) slots];
+        this.slotMask = (int) slots - 1;
+    }
+
+    public int getSizeInBytes() {
+        return this.table.length * 8;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, 0);
+    }
+
+    /**
+     * The evaluation stored for the key, or MISS.
+     */
+    public long probe(long key) {
+        this.probes++;
+        long entry = this.table[(int) key & this.slotMask];
+        if ((entry & ~VALUE_MASK) == (VALID | (key & KEY_MASK))) {
+            this.hits++;
+            return (int) entry;
+        }
+        return MISS;
+    }
+
+    public void store(long key, int value) {
+        this.stores++;
+        this.table[(int) key & this.slotMask] = VALID | (key & KEY_MASK) | (value & VALUE_MASK);
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Statistics">
+    public long getProbes() {
+        return this.probes;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getStores() {
+        return this.stores;
+    }
+
+    public double getHitRate() {
+        if (this.probes == 0) {
+            return 0;
+        }
+        return (double) this.hits / this.probes;
+    }
+
+    public void resetStatistics() {
+        this.probes = 0;
+        this.hits = 0;
+        this.stores = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Eval cache " + (this.getSizeInBytes() / (1024 * 1024)) + "MB: " + this.probes + " probes, hits "
+                + (Math.round(this.getHitRate() * 1000) / 10.0) + "%, " + this.stores + " stores";
+    }
+    // </editor-fold>
+}
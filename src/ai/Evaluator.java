@@ -27,4 +27,15 @@ package ai;
  */
 public abstract class Evaluator {
     public abstract int evaluate(Node n);
+
+    public abstract int evaluate(SearchBoard b);
+
+    /**
+     * Identifies the evaluation for caches that outlive one evaluator:
+     * evaluators with the same id must give the same value to every
+     * position. By default each instance is different.
+     */
+    public long getId() {
+        return System.identityHashCode(this);
+    }
 }
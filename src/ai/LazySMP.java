@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Lazy SMP: while the calling thread searches the position, helper threads
+ * search the same position on their own, half of them starting a ply
+ * deeper. The threads only share the transposition table, through which
+ * the helpers pass on bounds and best moves that the main search would have
+ * had to find by itself. The result is that of the main search.
+ * <p>
+ * The helpers run on a ForkJoinPool, one less than its parallelism, and are
+ * stopped once the main search is over. Every thread runs a principal
+ * variation search that deepens one ply at a time.
+ *
+ * @author cyberpython
+ */
+public class LazySMP {
+
+    public static final int DEFAULT_MEMORY_MB = 16;
+
+    private ForkJoinPool pool;
+    private Evaluator eval;
+    private TranspositionTable tt;
+    private MoveOrdering ordering;
+    private long nodeCount;
+    private boolean depthLimitReached;
+
+    public LazySMP(ForkJoinPool pool, Evaluator eval) {
+        this(pool, eval, new TranspositionTable(DEFAULT_MEMORY_MB));
+    }
+
+    /**
+     * With no pool (null) the search runs on the calling thread only.
+     */
+    public LazySMP(ForkJoinPool pool, Evaluator eval, TranspositionTable tt) {
+        this.pool = pool;
+        this.eval = eval;
+        this.tt = tt;
+        this.nodeCount = 0;
+    }
+
+    /**
+     * The main search uses the given ordering, each helper a new instance of it.
+     */
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.ordering = ordering;
+    }
+
+    public synchronized long getNodeCount() {
+        return this.nodeCount;
+    }
+
+    public boolean hasReachedDepthLimit() {
+        return this.depthLimitReached;
+    }
+
+    public int getHelperCount() {
+        if (this.pool == null) {
+            return 0;
+        }
+        return this.pool.getParallelism() - 1;
+    }
+
+    /**
+     * Same as NegaMax.search(n, maxDepth, deadline), with the help of the
+     * threads of the pool. As the search deepens by itself, n keeps the
+     * result of the last depth that completed when the deadline expires;
+     * false is only returned if not even depth 1 completed.
+     */
+    public boolean search(final Node n, final int maxDepth, Deadline deadline) {
+        final Deadline stop = new Deadline();
+        List<ForkJoinTask<?>> helpers = new ArrayList<ForkJoinTask<?>>();
+        for (int i = 0; i < this.getHelperCount(); i++) {
+            final int firstDepth = 1 + (i % 2);
+            helpers.add(this.pool.submit(new Runnable() {
+
+                public void run() {
+                    help(n, firstDepth, maxDepth, stop);
+                }
+            }));
+        }
+
+        NegaMax main = this.createSearch(this.tt, this.ordering);
+        boolean completed = false;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            Integer value = n.getValue();
+            Move move = n.getNextMove();
+            n.reset();
+            if (!main.search(n, depth, deadline)) {
+                if (completed) {
+                    n.reset();
+                    n.setValue(value);
+                    n.setNextMove(move);
+                }
+                break;
+            }
+            completed = true;
+            if (!main.hasReachedDepthLimit()) {
+                break;
+            }
+        }
+        this.depthLimitReached = main.hasReachedDepthLimit();
+
+        stop.expire();
+        for (ForkJoinTask<?> helper : helpers) {
+            helper.join();
+        }
+        synchronized (this) {
+            this.nodeCount += main.getNodeCount();
+        }
+        return completed;
+    }
+
+    private void help(Node n, int firstDepth, int maxDepth, Deadline stop) {
+        MoveOrdering helperOrdering = null;
+        if (this.ordering != null) {
+            helperOrdering = this.ordering.newInstance();
+        }
+        NegaMax search = this.createSearch(new TranspositionTable(this.tt), helperOrdering);
+        //The helpers never write to n, they only fill the shared table:
+        for (int depth = firstDepth; (depth <= maxDepth) && (!stop.hasExpired()); depth++) {
+            if (!search.prepare(n, depth, stop)) {
+                break;
+            }
+            search.searchRoot(-NegaMax.INFINITY, NegaMax.INFINITY);
+            if (!search.hasReachedDepthLimit()) {
+                break;
+            }
+        }
+        synchronized (this) {
+            this.nodeCount += search.getNodeCount();
+        }
+    }
+
+    private NegaMax createSearch(TranspositionTable table, MoveOrdering moveOrdering) {
+        NegaMax search = new NegaMax(this.eval, table);
+        search.setMoveOrdering(moveOrdering);
+        search.setPrincipalVariationSearch(true);
+        return search;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * MTD(f): finds the minimax value with a series of null-window alpha-beta
+ * searches, each one telling whether the value is above or below a guess,
+ * until the lower and upper bounds meet. The searches share a transposition
+ * table of their own, so every pass after the first one mostly re-reads the
+ * bounds the previous ones stored.
+ *
+ * @author cyberpython
+ */
+public class MTDF {
+
+    public static final int DEFAULT_MEMORY_MB = 16;
+
+    private NegaMax search;
+    private int passCount;
+    private boolean depthLimitReached;
+
+    public MTDF(Evaluator eval) {
+        this(eval, new TranspositionTable(DEFAULT_MEMORY_MB));
+    }
+
+    public MTDF(Evaluator eval, TranspositionTable memory) {
+        this.search = new NegaMax(eval, memory);
+        this.passCount = 0;
+    }
+
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.search.setMoveOrdering(ordering);
+    }
+
+    public long getNodeCount() {
+        return this.search.getNodeCount();
+    }
+
+    /**
+     * The number of null-window searches made so far.
+     */
+    public int getPassCount() {
+        return this.passCount;
+    }
+
+    /**
+     * Whether any pass of the last search stopped at maxDepth.
+     */
+    public boolean hasReachedDepthLimit() {
+        return this.depthLimitReached;
+    }
+
+    /**
+     * Searches n to depth 1, 2... maxDepth, each depth seeded with the value
+     * of the previous one, and stores the result in n. Returns false if the
+     * deadline (if any) expired first.
+     */
+    public boolean search(Node n, int maxDepth, Deadline deadline) {
+        int guess = 0;
+        this.depthLimitReached = true;
+        for (int depth = 1; (depth <= maxDepth) && (this.depthLimitReached); depth++) {
+            n.reset();
+            if (!this.search(n, depth, guess, deadline)) {
+                return false;
+            }
+            if (n.getValue() != null) {
+                guess = n.getValue();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches n to maxDepth starting from firstGuess, which should be as
+     * close to the result as possible (e.g. the value of a shallower search).
+     */
+    public boolean search(Node n, int maxDepth, int firstGuess, Deadline deadline) {
+        this.depthLimitReached = false;
+        if (!this.search.prepare(n, maxDepth, deadline)) {
+            return true;
+        }
+        int g = firstGuess;
+        int lower = -NegaMax.INFINITY;
+        int upper = NegaMax.INFINITY;
+        Move best = null;
+        while (lower < upper) {
+            int beta = g;
+            if (g == lower) {
+                beta = g + 1;
+            }
+            g = this.search.searchRoot(beta - 1, beta);
+            this.passCount++;
+            this.depthLimitReached |= this.search.hasReachedDepthLimit();
+            if (this.search.isAborted()) {
+                return false;
+            }
+            if (g < beta) {
+                upper = g;
+            } else {
+                lower = g;
+                //A move that reached the new lower bound:
+                best = this.search.getBestMove();
+            }
+        }
+        if (best != null) {
+            n.setValue(g);
+            n.setNextMove(best);
+        }
+        return true;
+    }
+}
@@ -22,81 +22,318 @@
 package ai;
 
 import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
 import ai.Node.NodeType;
 
 public class MiniMax {
 
     public enum SearchAlgorithm{
-        MINIMAX, ALPHA_BETA_PRUNING
+        MINIMAX, ALPHA_BETA_PRUNING, NEGAMAX, PVS, MTDF, LAZY_SMP, YBWC, MCTS
     }
 
+    private Deadline deadline;
+    private boolean aborted;
+    private boolean depthLimitReached;
+    private long nodeCount;
+    private TranspositionTable transpositionTable;
+    private MoveOrdering moveOrdering;
+    private MTDF mtdf;
+    private LazySMP lazySMP;
+    private MonteCarloTreeSearch mcts;
+    private int playoutBudget = MonteCarloTreeSearch.DEFAULT_PLAYOUTS;
+    private AspirationWindow aspirationWindow;
+    private ForkJoinPool pool;
+    private NodePool nodePool;
+    private Integer guess;
+
     public void apply(Node n, int maxDepth, SearchAlgorithm algorithm, Evaluator eval){
+        search(n, maxDepth, algorithm, eval, null);
+    }
+
+    /**
+     * Iterative deepening: searches n to depth 1, 2, 3... up to maxDepth and
+     * stops when timeBudgetMillis have passed, keeping the move of the last
+     * iteration that completed. The first iteration always completes so that
+     * there is a move to play. A budget of 0 searches maxDepth directly.
+     * LAZY_SMP deepens by itself and MCTS is not depth-first, so they are
+     * given maxDepth and the whole budget in a single search.
+     */
+    public void apply(Node n, int maxDepth, SearchAlgorithm algorithm, Evaluator eval, long timeBudgetMillis){
+        if(timeBudgetMillis <= 0){
+            apply(n, maxDepth, algorithm, eval);
+            return;
+        }
+        Deadline timeLimit = new Deadline(timeBudgetMillis);
+        if(algorithm == SearchAlgorithm.MCTS){
+            //Not a depth-first search, it just keeps playing until the time is up:
+            search(n, maxDepth, algorithm, eval, timeLimit);
+            return;
+        }
+        if(algorithm == SearchAlgorithm.LAZY_SMP){
+            //Keeps the last depth that completed, unless not even depth 1 did:
+            if(!search(n, maxDepth, algorithm, eval, timeLimit)){
+                search(n, 1, algorithm, eval, null);
+            }
+            return;
+        }
+        search(n, 1, algorithm, eval, null);
+        //Stop early once an iteration was not cut off by the depth limit,
+        //deeper ones would only repeat it:
+        for(int depth = 2; (depth <= maxDepth) && (this.depthLimitReached) && (!timeLimit.hasExpired()); depth++){
+            Integer value = n.getValue();
+            Move move = n.getNextMove();
+            n.reset();
+            if(!search(n, depth, algorithm, eval, timeLimit)){
+                n.reset();
+                n.setValue(value);
+                n.setNextMove(move);
+            }
+        }
+    }
+
+    /**
+     * Sets the table NEGAMAX, PVS, MTDF and LAZY_SMP keep its results in (null for none).
+     */
+    public void setTranspositionTable(TranspositionTable tt) {
+        this.transpositionTable = tt;
+    }
+
+    /**
+     * Sets the move ordering NEGAMAX, PVS, MTDF and LAZY_SMP apply (null searches the moves in the
+     * order the board generates them).
+     */
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.moveOrdering = ordering;
+    }
+
+    /**
+     * Makes NEGAMAX and PVS search with aspiration windows (null for none).
+     */
+    public void setAspirationWindow(AspirationWindow window) {
+        this.aspirationWindow = window;
+    }
+
+    /**
+     * Makes NEGAMAX and PVS split the moves of the root among the threads of
+     * the pool (null searches on the calling thread). The transposition
+     * table and aspiration windows are not used by the parallel search.
+     * LAZY_SMP runs its helper threads on the pool and YBWC its tasks.
+     */
+    public void setForkJoinPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Makes ALPHA_BETA_PRUNING keep its positions in the given pool instead
+     * of creating a Node for each of them (null creates Nodes). The results
+     * are the same; the pool can be reused by the following searches.
+     */
+    public void setNodePool(NodePool nodes) {
+        this.nodePool = nodes;
+    }
+
+    /**
+     * The number of random games MCTS plays per search at most (0 for no
+     * limit, so a time budget has to be given). MCTS does not use maxDepth
+     * or the evaluator, it plays every game to its end.
+     */
+    public void setPlayoutBudget(int playouts) {
+        this.playoutBudget = playouts;
+    }
+
+    /**
+     * The playout rate of the last MCTS search.
+     */
+    public double getPlayoutsPerSecond() {
+        if (this.mcts == null) {
+            return 0;
+        }
+        return this.mcts.getPlayoutsPerSecond();
+    }
+
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+    private boolean search(Node n, int maxDepth, SearchAlgorithm algorithm, Evaluator eval, Deadline deadline){
+        this.deadline = deadline;
+        this.aborted = false;
+        this.depthLimitReached = false;
         if(algorithm == SearchAlgorithm.MINIMAX){
             minimax(n, maxDepth, eval);
+        }else if((algorithm == SearchAlgorithm.ALPHA_BETA_PRUNING) && (this.nodePool != null)){
+            alphaBetaPruning(this.nodePool, n, maxDepth, eval);
         }else if(algorithm == SearchAlgorithm.ALPHA_BETA_PRUNING){
             alphaBetaPruning(n, maxDepth, eval);
+        }else if(((algorithm == SearchAlgorithm.NEGAMAX) || (algorithm == SearchAlgorithm.PVS)) && (this.pool != null)){
+            ParallelSearch parallel = new ParallelSearch(this.pool, eval);
+            parallel.setMoveOrdering(this.moveOrdering);
+            parallel.setPrincipalVariationSearch(algorithm == SearchAlgorithm.PVS);
+            this.aborted = !parallel.search(n, maxDepth, deadline);
+            this.depthLimitReached = parallel.hasReachedDepthLimit();
+            this.nodeCount += parallel.getNodeCount();
+        }else if((algorithm == SearchAlgorithm.NEGAMAX) || (algorithm == SearchAlgorithm.PVS)){
+            NegaMax negaMax = new NegaMax(eval, this.transpositionTable);
+            negaMax.setMoveOrdering(this.moveOrdering);
+            negaMax.setPrincipalVariationSearch(algorithm == SearchAlgorithm.PVS);
+            if(this.aspirationWindow != null){
+                this.aborted = !this.aspirationWindow.search(negaMax, n, maxDepth, this.guess, deadline);
+            }else{
+                this.aborted = !negaMax.search(n, maxDepth, deadline);
+            }
+            this.depthLimitReached = negaMax.hasReachedDepthLimit();
+            this.nodeCount += negaMax.getNodeCount();
+            if((!this.aborted) && (n.getValue() != null)){
+                this.guess = n.getValue();
+            }
+        }else if(algorithm == SearchAlgorithm.MTDF){
+            mtdf(n, maxDepth, eval);
+        }else if(algorithm == SearchAlgorithm.MCTS){
+            if(this.mcts == null){
+                this.mcts = new MonteCarloTreeSearch(this.pool);
+            }
+            this.mcts.setPlayoutBudget(this.playoutBudget);
+            this.aborted = !this.mcts.search(n, deadline);
+            this.nodeCount += this.mcts.getPlayouts();
+        }else if(algorithm == SearchAlgorithm.YBWC){
+            YBWC ybwc = new YBWC(this.pool, eval);
+            this.aborted = !ybwc.search(n, maxDepth, deadline);
+            this.depthLimitReached = ybwc.hasReachedDepthLimit();
+            this.nodeCount += ybwc.getNodeCount();
+        }else if(algorithm == SearchAlgorithm.LAZY_SMP){
+            if(this.lazySMP == null){
+                if(this.transpositionTable != null){
+                    this.lazySMP = new LazySMP(this.pool, eval, this.transpositionTable);
+                }else{
+                    this.lazySMP = new LazySMP(this.pool, eval);
+                }
+                this.lazySMP.setMoveOrdering(this.moveOrdering);
+            }
+            long nodesBefore = this.lazySMP.getNodeCount();
+            this.aborted = !this.lazySMP.search(n, maxDepth, deadline);
+            this.depthLimitReached = this.lazySMP.hasReachedDepthLimit();
+            this.nodeCount += this.lazySMP.getNodeCount() - nodesBefore;
+        }
+        return !this.aborted;
+    }
+
+    private boolean checkDeadline() {
+        this.nodeCount++;
+        if ((this.deadline != null) && (this.nodeCount % Deadline.CHECK_INTERVAL == 0) && (this.deadline.hasExpired())) {
+            this.aborted = true;
+        }
+        return this.aborted;
+    }
+
+    //The first MTDF search deepens from depth 1 to get its guesses, the next
+    //ones (iterative deepening) start from the value of the previous one:
+    private void mtdf(Node n, int maxDepth, Evaluator eval) {
+        if (this.mtdf == null) {
+            if (this.transpositionTable != null) {
+                this.mtdf = new MTDF(eval, this.transpositionTable);
+            } else {
+                this.mtdf = new MTDF(eval);
+            }
+            this.mtdf.setMoveOrdering(this.moveOrdering);
+        }
+        long nodesBefore = this.mtdf.getNodeCount();
+        if (this.guess == null) {
+            this.aborted = !this.mtdf.search(n, maxDepth, this.deadline);
+        } else {
+            this.aborted = !this.mtdf.search(n, maxDepth, this.guess, this.deadline);
+        }
+        this.depthLimitReached = this.mtdf.hasReachedDepthLimit();
+        this.nodeCount += this.mtdf.getNodeCount() - nodesBefore;
+        if ((!this.aborted) && (n.getValue() != null)) {
+            this.guess = n.getValue();
         }
     }
 
     private void minimax(Node n, int maxDepth, Evaluator eval) {
         if (n.isEndGameNode()) {
-            System.out.println("H1");
             return;
         }
-        ArrayDeque<Node> searchStack = new ArrayDeque<Node>();
-        searchStack.push(n);
-
-        while (searchStack.isEmpty() == false) {
-            Node node = searchStack.pop();
+        if (maxDepth <= 0) {
+            n.setValue(eval.evaluate(n));
+            return;
+        }
 
-            Move nextMove = node.getNextMove();
-            boolean isRoot = node.isRoot();
+        //The whole search runs on one position, moving down and back up with
+        //makeMove()/undoMove(); only the move lists of the current line are kept:
+        SearchBoard board = n.createSearchBoard();
+        int[][] moves = new int[maxDepth][board.getMaxMoves()];
+        int count = board.generateMoves(moves[0]);
+        for (int i = 0; (i < count) && (!this.aborted); i++) {
+            int move = moves[0][i];
+            long undo = board.makeMove(move);
+            int value = minimaxValue(board, 1, maxDepth, false, eval, moves);
+            board.undoMove(move, undo);
+            if ((!this.aborted) && (n.setValue(value))) {
+                n.setNextMove(board.toMove(move));
+            }
+        }
+    }
 
-            if (node.isTerminal(maxDepth)) {
-                node.setValue(eval.evaluate(node));
-                if (!isRoot) {
-                    Node parent = node.getParent();
-                    if (parent.setValue(node.getValue())) {
-                        parent.setNextMove(node.getMoveLeadingHere());
-                    }
-                }
+    private int minimaxValue(SearchBoard board, int depth, int maxDepth, boolean max, Evaluator eval, int[][] moves) {
+        if (this.checkDeadline()) {
+            return 0;
+        }
+        if (board.isEndGame()) {
+            return eval.evaluate(board);
+        }
+        if (depth == maxDepth) {
+            this.depthLimitReached = true;
+            return eval.evaluate(board);
+        }
+        int[] buffer = moves[depth];
+        int count = board.generateMoves(buffer);
+        if (count == 0) {
+            long undo = board.makeMove(SearchBoard.PASS);
+            int value = minimaxValue(board, depth + 1, maxDepth, !max, eval, moves);
+            board.undoMove(SearchBoard.PASS, undo);
+            return value;
+        }
+        int best;
+        if (max) {
+            best = Integer.MIN_VALUE;
+        } else {
+            best = Integer.MAX_VALUE;
+        }
+        for (int i = 0; (i < count) && (!this.aborted); i++) {
+            int move = buffer[i];
+            long undo = board.makeMove(move);
+            int value = minimaxValue(board, depth + 1, maxDepth, !max, eval, moves);
+            board.undoMove(move, undo);
+            if (max) {
+                best = Math.max(best, value);
             } else {
-                if (node.hasMoreChildren()) {
-                    searchStack.push(node);
-                    searchStack.push(node.getNextChild());
-                } else {
-                    if (nextMove != null) {
-                        if (!isRoot) {
-                            Node parent = node.getParent();
-                            if (parent.setValue(node.getValue())) {
-                                parent.setNextMove(node.getMoveLeadingHere());
-                            }
-                        }
-                    }
-                }
+                best = Math.min(best, value);
             }
-
-            node.setVisited(true);
-            //print(node);
         }
+        return best;
     }
 
 
     private void alphaBetaPruning(Node n, int maxDepth, Evaluator eval) {
         if (n.isEndGameNode()) {
-            System.out.println("H1");
             return;
         }
         ArrayDeque<Node> searchStack = new ArrayDeque<Node>();
         searchStack.push(n);
 
         while (searchStack.isEmpty() == false) {
+            if (this.checkDeadline()) {
+                return;
+            }
             Node node = searchStack.pop();
 
             Move nextMove = node.getNextMove();
             boolean isRoot = node.isRoot();
 
             if (node.isTerminal(maxDepth)) {
+                if (node.getDepth() == maxDepth) {
+                    this.depthLimitReached = true;
+                }
                 node.setValue(eval.evaluate(node));
                 if (!isRoot) {
                     Node parent = node.getParent();
@@ -106,38 +343,24 @@ public class MiniMax {
                 }
             } else {
                 if (node.hasMoreChildren()) {
+                    boolean descend = true;
                     if (!isRoot) {
                         Integer nodeValue = node.getValue();
-                        if(nodeValue!=null){
-                            Node parent = node.getParent();
-                            Integer parentValue = parent.getValue();
-                            if(parentValue==null){
-                                searchStack.push(node);
-                                searchStack.push(node.getNextChild());
-                            }else{
-                                NodeType type = parent.getType();
-                                if(type == NodeType.MAX){
-                                    //Pruning:
-                                    if(node.getValue()>=parentValue){
-                                        searchStack.push(node);
-                                        searchStack.push(node.getNextChild());
-                                    }
-                                }else{
-                                    //Pruning:
-                                    if(node.getValue()<=parentValue){
-                                        searchStack.push(node);
-                                        searchStack.push(node.getNextChild());
-                                    }
-                                }
+                        Integer parentValue = node.getParent().getValue();
+                        if ((nodeValue != null) && (parentValue != null)) {
+                            //Pruning:
+                            if (node.getParent().getType() == NodeType.MAX) {
+                                descend = (nodeValue >= parentValue);
+                            } else {
+                                descend = (nodeValue <= parentValue);
                             }
                         }
-                        else{
-                            searchStack.push(node);
-                            searchStack.push(node.getNextChild());
-                        }
-                    }else{
+                    }
+                    if (descend) {
                         searchStack.push(node);
                         searchStack.push(node.getNextChild());
+                        node.setVisited(true);
+                        continue;
                     }
                 } else {
                     if (nextMove != null) {
@@ -151,12 +374,87 @@ public class MiniMax {
                 }
             }
 
+            //The search of the node has finished, only the principal
+            //variation is kept:
+            if (!isRoot) {
+                node.getParent().releaseChild(node);
+            }
             node.setVisited(true);
             //print(node);
         }
     }
 
-    
+    //The same search as alphaBetaPruning(n, maxDepth, eval), walking a single
+    //SearchBoard with the positions of the current line kept in the pool:
+    private void alphaBetaPruning(NodePool nodes, Node n, int maxDepth, Evaluator eval) {
+        if (n.isEndGameNode()) {
+            return;
+        }
+        SearchBoard board = n.createSearchBoard();
+        nodes.prepare(maxDepth, board.getMaxMoves());
+        int ply = 0;
+        while (ply >= 0) {
+            if (this.checkDeadline()) {
+                return;
+            }
+            if ((ply == maxDepth) || (board.isEndGame())) {
+                if (ply == maxDepth) {
+                    this.depthLimitReached = true;
+                }
+                int value = eval.evaluate(board);
+                if (ply == 0) {
+                    n.setValue(value);
+                    return;
+                }
+                if (nodes.setValue(ply - 1, value)) {
+                    nodes.setBestMove(ply - 1, nodes.getCurrentMove(ply - 1));
+                }
+                ply = this.backUp(nodes, board, ply);
+                continue;
+            }
+            if (!nodes.isExpanded(ply)) {
+                nodes.expand(ply, board);
+            }
+            if (nodes.hasMoreChildren(ply)) {
+                boolean search = true;
+                if ((ply > 0) && (nodes.hasValue(ply)) && (nodes.hasValue(ply - 1))) {
+                    //Pruning:
+                    if (NodePool.isMax(ply - 1)) {
+                        search = (nodes.getValue(ply) >= nodes.getValue(ply - 1));
+                    } else {
+                        search = (nodes.getValue(ply) <= nodes.getValue(ply - 1));
+                    }
+                }
+                if (search) {
+                    int move = nodes.nextChild(ply);
+                    nodes.setUndo(ply, board.makeMove(move));
+                    ply++;
+                    nodes.clear(ply);
+                } else {
+                    ply = this.backUp(nodes, board, ply);
+                }
+            } else {
+                if ((ply > 0) && (nodes.getBestMove(ply) != TranspositionTable.NO_MOVE)) {
+                    if (nodes.setValue(ply - 1, nodes.getValue(ply))) {
+                        nodes.setBestMove(ply - 1, nodes.getCurrentMove(ply - 1));
+                    }
+                }
+                ply = this.backUp(nodes, board, ply);
+            }
+        }
+        if (nodes.getBestMove(0) != TranspositionTable.NO_MOVE) {
+            n.setValue(nodes.getValue(0));
+            n.setNextMove(board.toMove(nodes.getBestMove(0)));
+        }
+    }
+
+    //Leaves the position at ply, undoing the move that led to it:
+    private int backUp(NodePool nodes, SearchBoard board, int ply) {
+        if (ply > 0) {
+            board.undoMove(nodes.getCurrentMove(ply - 1), nodes.getUndo(ply - 1));
+        }
+        return ply - 1;
+    }
 
     private void print(Node n) {
         System.out.println(n.toString());
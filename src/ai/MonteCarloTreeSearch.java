@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Monte Carlo Tree Search with the UCT selection rule. Every iteration walks
+ * down the tree picking the child with the best upper confidence bound,
+ * adds the children of the position it ends at once that has been visited
+ * often enough, plays random moves from there to the end of the game and
+ * counts the result in every position on the way back up. The move played
+ * is the most visited move of the root.
+ * <p>
+ * The tree is kept in parallel int arrays (move, first child, number of
+ * children, visits, score in half points) with the children of a position
+ * next to each other, and the playouts run on a SearchBoard of their own
+ * with preallocated move and undo stacks, so an iteration allocates
+ * nothing. With a pool the iterations run on several threads that share
+ * the tree; a position is counted as visited (and lost) as soon as a thread
+ * walks through it, which steers the other threads elsewhere until the
+ * result is known (virtual loss).
+ *
+ * @author cyberpython
+ */
+public class MonteCarloTreeSearch {
+
+    public static final int DEFAULT_PLAYOUTS = 20000;
+    public static final double DEFAULT_EXPLORATION = 1.4;
+    //Visits of a position before its children are added:
+    private static final int EXPANSION_VISITS = 4;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int MAX_NODES = 1 << 22;
+    private static final int MAX_PLIES = 256;
+    private static final int NOT_EXPANDED = -1;
+
+    private ForkJoinPool pool;
+    private int playoutBudget;
+    private double exploration;
+
+    private int[] move;
+    private int[] firstChild;
+    private int[] childCount;
+    private int[] visits;
+    private int[] score;
+    private int size;
+
+    private int playouts;
+    private long elapsedMillis;
+
+    /**
+     * With no pool (null) the playouts run on the calling thread only.
+     */
+    public MonteCarloTreeSearch(ForkJoinPool pool) {
+        this.pool = pool;
+        this.playoutBudget = DEFAULT_PLAYOUTS;
+        this.exploration = DEFAULT_EXPLORATION;
+    }
+
+    /**
+     * The number of playouts after which a search stops; 0 for no limit, in
+     * which case a deadline has to be given.
+     */
+    public void setPlayoutBudget(int playouts) {
+        this.playoutBudget = playouts;
+    }
+
+    /**
+     * The weight of the exploration term of the UCT rule.
+     */
+    public void setExploration(double c) {
+        this.exploration = c;
+    }
+
+    public synchronized int getPlayouts() {
+        return this.playouts;
+    }
+
+    public synchronized int getTreeSize() {
+        return this.size;
+    }
+
+    public synchronized double getPlayoutsPerSecond() {
+        return this.playouts * 1000.0 / Math.max(1, this.elapsedMillis);
+    }
+
+    /**
+     * Searches the position of n until the playout budget is used up or the
+     * deadline (if any) expires, and stores the most visited move in n with
+     * the percentage of the playouts it won as its value.
+     */
+    public boolean search(Node n, final Deadline deadline) {
+        if (n.isEndGameNode()) {
+            return true;
+        }
+        long start = System.currentTimeMillis();
+        SearchBoard board = n.createSearchBoard();
+        Worker main = new Worker(board, start);
+        synchronized (this) {
+            this.clear();
+            this.expand(0, board, main.buffer);
+        }
+
+        List<ForkJoinTask<?>> helpers = new ArrayList<ForkJoinTask<?>>();
+        if (this.pool != null) {
+            for (int i = 1; i < this.pool.getParallelism(); i++) {
+                final Worker helper = new Worker(board.copy(), start + i);
+                helpers.add(this.pool.submit(new Runnable() {
+
+                    public void run() {
+                        helper.run(deadline);
+                    }
+                }));
+            }
+        }
+        main.run(deadline);
+        for (ForkJoinTask<?> helper : helpers) {
+            helper.join();
+        }
+
+        synchronized (this) {
+            this.elapsedMillis = System.currentTimeMillis() - start;
+            int best = -1;
+            for (int c = this.firstChild[0]; c < this.firstChild[0] + this.childCount[0]; c++) {
+                if ((this.move[c] != SearchBoard.PASS) && ((best < 0) || (this.visits[c] > this.visits[best]))) {
+                    best = c;
+                }
+            }
+            if ((best >= 0) && (this.visits[best] > 0)) {
+                n.setValue((int) Math.round(50.0 * this.score[best] / this.visits[best]));
+                n.setNextMove(board.toMove(this.move[best]));
+            }
+        }
+        return true;
+    }
+
+    private void clear() {
+        if (this.move == null) {
+            this.move = new int[INITIAL_CAPACITY];
+            this.firstChild = new int[INITIAL_CAPACITY];
+            this.childCount = new int[INITIAL_CAPACITY];
+            this.visits = new int[INITIAL_CAPACITY];
+            this.score = new int[INITIAL_CAPACITY];
+        }
+        this.size = 1;
+        this.move[0] = SearchBoard.PASS;
+        this.firstChild[0] = NOT_EXPANDED;
+        this.childCount[0] = 0;
+        this.visits[0] = 0;
+        this.score[0] = 0;
+        this.playouts = 0;
+    }
+
+    //Adds the children of the node the board is at: its moves, a single PASS
+    //if it has none, or none at all if the game is over there:
+    private void expand(int node, SearchBoard board, int[] buffer) {
+        int count = board.generateMoves(buffer);
+        if (count == 0) {
+            long undo = board.makeMove(SearchBoard.PASS);
+            boolean over = (board.generateMoves(buffer) == 0);
+            board.undoMove(SearchBoard.PASS, undo);
+            if (over) {
+                this.firstChild[node] = this.size;
+                this.childCount[node] = 0;
+                return;
+            }
+            buffer[0] = SearchBoard.PASS;
+            count = 1;
+        }
+        if (this.size + count > this.move.length) {
+            if (this.move.length >= MAX_NODES) {
+                //Full, the node stays a leaf:
+                return;
+            }
+            this.grow();
+        }
+        int first = this.size;
+        for (int i = 0; i < count; i++) {
+            int c = first + i;
+            this.move[c] = buffer[i];
+            this.firstChild[c] = NOT_EXPANDED;
+            this.childCount[c] = 0;
+            this.visits[c] = 0;
+            this.score[c] = 0;
+        }
+        this.size += count;
+        this.firstChild[node] = first;
+        this.childCount[node] = count;
+    }
+
+    private void grow() {
+        int capacity = Math.min(MAX_NODES, this.move.length * 2);
+        this.move = Arrays.copyOf(this.move, capacity);
+        this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+        this.childCount = Arrays.copyOf(this.childCount, capacity);
+        this.visits = Arrays.copyOf(this.visits, capacity);
+        this.score = Arrays.copyOf(this.score, capacity);
+    }
+
+    private int selectChild(int node) {
+        int first = this.firstChild[node];
+        double logVisits = Math.log(Math.max(1, this.visits[node]));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = first; c < first + this.childCount[node]; c++) {
+            if (this.visits[c] == 0) {
+                return c;
+            }
+            double value = this.score[c] / (2.0 * this.visits[c]) + this.exploration * Math.sqrt(logVisits / this.visits[c]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private boolean isDone(Deadline deadline) {
+        if (deadline == null) {
+            int budget = this.playoutBudget;
+            if (budget <= 0) {
+                budget = DEFAULT_PLAYOUTS;
+            }
+            return (this.playouts >= budget);
+        }
+        return ((this.playoutBudget > 0) && (this.playouts >= this.playoutBudget)) || (deadline.hasExpired());
+    }
+
+    //The board, stacks and random numbers of one thread:
+    private class Worker {
+
+        private SearchBoard board;
+        private int[] buffer;
+        private int[] path;
+        private int[] moves;
+        private long[] undo;
+        private long random;
+
+        public Worker(SearchBoard board, long seed) {
+            this.board = board;
+            this.buffer = new int[board.getMaxMoves()];
+            this.path = new int[MAX_PLIES];
+            this.moves = new int[MAX_PLIES];
+            this.undo = new long[MAX_PLIES];
+            this.random = (seed * 0x9E3779B97F4A7C15L) | 1;
+        }
+
+        public void run(Deadline deadline) {
+            while (true) {
+                int pathLength;
+                synchronized (MonteCarloTreeSearch.this) {
+                    if (isDone(deadline)) {
+                        return;
+                    }
+                    pathLength = this.select();
+                }
+                int plies = pathLength - 1;
+                plies = this.playout(plies);
+                int outcome = this.board.getOutcome();
+                //The result for the player to move at the root:
+                if (plies % 2 != 0) {
+                    outcome = -outcome;
+                }
+                while (plies > 0) {
+                    plies--;
+                    this.board.undoMove(this.moves[plies], this.undo[plies]);
+                }
+                synchronized (MonteCarloTreeSearch.this) {
+                    this.update(pathLength, outcome);
+                    playouts++;
+                }
+            }
+        }
+
+        //Walks down from the root, adding children to the leaf it ends at if
+        //it is visited often enough, and returns the number of nodes passed:
+        private int select() {
+            int node = 0;
+            int length = 0;
+            this.path[length++] = node;
+            visits[node]++;
+            while (true) {
+                if ((firstChild[node] == NOT_EXPANDED) && (visits[node] >= EXPANSION_VISITS)) {
+                    expand(node, this.board, this.buffer);
+                }
+                if ((firstChild[node] == NOT_EXPANDED) || (childCount[node] == 0) || (length == MAX_PLIES)) {
+                    return length;
+                }
+                node = selectChild(node);
+                //Virtual loss: the visit counts before the result is known:
+                visits[node]++;
+                this.moves[length - 1] = move[node];
+                this.undo[length - 1] = this.board.makeMove(move[node]);
+                this.path[length++] = node;
+            }
+        }
+
+        //Plays random moves to the end of the game and returns the number of
+        //moves on the stack:
+        private int playout(int plies) {
+            int passes = 0;
+            while ((passes < 2) && (plies < MAX_PLIES)) {
+                int count = this.board.generateMoves(this.buffer);
+                int m;
+                if (count == 0) {
+                    m = SearchBoard.PASS;
+                    passes++;
+                } else {
+                    m = this.buffer[this.nextInt(count)];
+                    passes = 0;
+                }
+                this.moves[plies] = m;
+                this.undo[plies] = this.board.makeMove(m);
+                plies++;
+            }
+            return plies;
+        }
+
+        //Scores the nodes of the path for the player who moved into them, in
+        //half points: 2 for a win, 1 for a draw:
+        private void update(int pathLength, int outcome) {
+            for (int i = 1; i < pathLength; i++) {
+                int result = outcome;
+                if (i % 2 == 0) {
+                    result = -result;
+                }
+                score[this.path[i]] += result + 1;
+            }
+        }
+
+        private int nextInt(int bound) {
+            this.random ^= this.random << 13;
+            this.random ^= this.random >>> 7;
+            this.random ^= this.random << 17;
+            return (int) ((this.random >>> 33) % bound);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * Sorts the moves of a position before they are searched, best candidates
+ * first: the best move of an earlier search of the position, then the
+ * killer moves of the ply (moves that caused a cutoff in a sibling
+ * position), then by history score (how often and how deep a move caused
+ * cutoffs anywhere) and finally by SearchBoard.getStaticMoveScore().
+ *
+ * Subclasses can change the order by overriding score(). An instance keeps
+ * its killers and history between searches, so it should only be shared by
+ * searches of the same game.
+ *
+ * @author cyberpython
+ */
+public class MoveOrdering {
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int KILLER_SCORE = 1 << 29;
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int HISTORY_SHIFT = 8;
+
+    private int[][] killers;
+    private int[] history;
+    private int[][] scores;
+
+    public MoveOrdering() {
+        this.killers = new int[0][];
+        this.history = new int[0];
+        this.scores = new int[0][];
+    }
+
+    /**
+     * A new ordering of the same kind, for a search running on another
+     * thread. Subclasses have to override it.
+     */
+    public MoveOrdering newInstance() {
+        return new MoveOrdering();
+    }
+
+    /**
+     * Makes room for searches of the given board up to maxPly plies.
+     */
+    public void prepare(SearchBoard board, int maxPly) {
+        int maxMoves = board.getMaxMoves();
+        if (this.history.length < maxMoves) {
+            this.history = new int[maxMoves];
+        }
+        if ((this.killers.length <= maxPly) || ((this.scores.length > 0) && (this.scores[0].length < maxMoves))) {
+            int[][] k = new int[maxPly + 1][2];
+            for (int i = 0; i < k.length; i++) {
+                if (i < this.killers.length) {
+                    k[i][0] = this.killers[i][0];
+                    k[i][1] = this.killers[i][1];
+                } else {
+                    k[i][0] = TranspositionTable.NO_MOVE;
+                    k[i][1] = TranspositionTable.NO_MOVE;
+                }
+            }
+            this.killers = k;
+            this.scores = new int[maxPly + 1][maxMoves];
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.history.length; i++) {
+            this.history[i] = 0;
+        }
+        for (int i = 0; i < this.killers.length; i++) {
+            this.killers[i][0] = TranspositionTable.NO_MOVE;
+            this.killers[i][1] = TranspositionTable.NO_MOVE;
+        }
+    }
+
+    /**
+     * Sorts the first count moves, hashMove (if it is one of them) first.
+     */
+    public void order(SearchBoard board, int[] moves, int count, int ply, int hashMove) {
+        int[] s = this.scores[ply];
+        for (int i = 0; i < count; i++) {
+            s[i] = this.score(board, moves[i], ply, hashMove);
+        }
+        //Insertion sort, the lists are short; equal scores keep their order:
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = s[i];
+            int j = i - 1;
+            while ((j >= 0) && (s[j] < score)) {
+                moves[j + 1] = moves[j];
+                s[j + 1] = s[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            s[j + 1] = score;
+        }
+    }
+
+    protected int score(SearchBoard board, int move, int ply, int hashMove) {
+        if (move == hashMove) {
+            return HASH_MOVE_SCORE;
+        }
+        if (move == this.killers[ply][0]) {
+            return KILLER_SCORE + 1;
+        }
+        if (move == this.killers[ply][1]) {
+            return KILLER_SCORE;
+        }
+        return (this.history[move] << HISTORY_SHIFT) + board.getStaticMoveScore(move);
+    }
+
+    /**
+     * Records a move that caused a beta cutoff with the given remaining depth.
+     */
+    public void recordCutoff(int move, int ply, int remainingDepth) {
+        if (move == SearchBoard.PASS) {
+            return;
+        }
+        if (this.killers[ply][0] != move) {
+            this.killers[ply][1] = this.killers[ply][0];
+            this.killers[ply][0] = move;
+        }
+        this.history[move] += remainingDepth * remainingDepth;
+        if (this.history[move] > HISTORY_LIMIT) {
+            for (int i = 0; i < this.history.length; i++) {
+                this.history[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * Recursive negamax search with alpha-beta bounds on a SearchBoard.
+ * The evaluator scores positions for the player to move at the root, so the
+ * score is negated on the other player's plies.
+ *
+ * @author cyberpython
+ */
+public class NegaMax {
+
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    private Evaluator eval;
+    private TranspositionTable tt;
+    private MoveOrdering ordering;
+    private boolean principalVariationSearch;
+    private SearchBoard board;
+    private int maxDepth;
+    private int[][] moves;
+    private int bestMove;
+    private long nodeCount;
+    private Deadline deadline;
+    private boolean aborted;
+    private boolean depthLimitReached;
+    private SharedAlpha sharedAlpha;
+    private int rootIndex;
+
+    public NegaMax(Evaluator eval) {
+        this(eval, null);
+    }
+
+    /**
+     * With a transposition table, positions already searched deep enough are
+     * not searched again and the best move found for a position is tried
+     * first. The table can be kept between searches by the same player.
+     */
+    public NegaMax(Evaluator eval, TranspositionTable tt) {
+        this.eval = eval;
+        this.tt = tt;
+        this.nodeCount = 0;
+    }
+
+    /**
+     * Sets the stage that sorts the moves of every position before they
+     * are searched; without one they are searched in generation order.
+     */
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.ordering = ordering;
+    }
+
+    /**
+     * Principal Variation Search (NegaScout): only the first move of a
+     * position gets the full window, the others are searched with a null
+     * window that just tests whether they are better, and are searched
+     * again with the full window if they are. The moves are sorted by
+     * SearchBoard.getStaticMoveScore() when no move ordering is set.
+     */
+    public void setPrincipalVariationSearch(boolean pvs) {
+        this.principalVariationSearch = pvs;
+    }
+
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Whether the last search stopped at maxDepth anywhere; if not, searching
+     * deeper would give the same result.
+     */
+    public boolean hasReachedDepthLimit() {
+        return this.depthLimitReached;
+    }
+
+    /**
+     * Searches the position of n to maxDepth plies and stores the result in
+     * n.getValue() / n.getNextMove(). Among moves of equal value the first
+     * one generated is kept, as in the MINIMAX search (without a
+     * transposition table, which may change the order of the moves).
+     */
+    public void search(Node n, int maxDepth) {
+        search(n, maxDepth, null);
+    }
+
+    /**
+     * Same as search(n, maxDepth) but gives up when the deadline (if any)
+     * expires, in which case it returns false and n should be discarded.
+     */
+    public boolean search(Node n, int maxDepth, Deadline deadline) {
+        if (!this.prepare(n, maxDepth, deadline)) {
+            return true;
+        }
+        int value = this.searchRoot(-INFINITY, INFINITY);
+        if (this.aborted) {
+            return false;
+        }
+        if (this.bestMove != TranspositionTable.NO_MOVE) {
+            n.setValue(value);
+            n.setNextMove(this.getBestMove());
+        }
+        return true;
+    }
+
+    /**
+     * Sets up a search of n to maxDepth for drivers that call searchRoot()
+     * with windows of their own. Returns false if there is nothing to
+     * search, i.e. the game is over or maxDepth is 0 and n was evaluated.
+     */
+    public boolean prepare(Node n, int maxDepth, Deadline deadline) {
+        this.deadline = deadline;
+        this.aborted = false;
+        this.depthLimitReached = false;
+        this.bestMove = TranspositionTable.NO_MOVE;
+        if (n.isEndGameNode()) {
+            return false;
+        }
+        if (maxDepth <= 0) {
+            n.setValue(eval.evaluate(n));
+            return false;
+        }
+
+        this.board = n.createSearchBoard();
+        this.maxDepth = maxDepth;
+        this.moves = new int[maxDepth][board.getMaxMoves()];
+        if (this.ordering != null) {
+            this.ordering.prepare(board, maxDepth);
+        }
+        return true;
+    }
+
+    /**
+     * Searches the prepared position with the window (alpha, beta). The
+     * result is exact if it lies inside the window and a bound otherwise
+     * (an upper one if it is not above alpha, a lower one if it is not below
+     * beta). getBestMove() returns the move it came from.
+     */
+    public int searchRoot(int alpha, int beta) {
+        this.nodeCount++;
+        this.bestMove = TranspositionTable.NO_MOVE;
+        int count = board.generateMoves(moves[0]);
+        long key = 0;
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (this.tt != null) {
+            key = board.getHash();
+            if (this.tt.probe(key)) {
+                hashMove = this.tt.getMove();
+            }
+        }
+        this.orderMoves(moves[0], count, 0, hashMove);
+
+        int alphaOrig = alpha;
+        int best = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int move = moves[0][i];
+            long undo = board.makeMove(move);
+            int value = searchChild(i, 1, maxDepth, alpha, beta, -1);
+            board.undoMove(move, undo);
+            if (this.aborted) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                this.bestMove = move;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if ((this.tt != null) && (count > 0)) {
+            this.tt.store(key, maxDepth, boundType(best, alphaOrig, beta), best, this.bestMove);
+        }
+        return best;
+    }
+
+    /**
+     * The best move of the last searchRoot() call, or null if there was none.
+     */
+    public Move getBestMove() {
+        if (this.bestMove == TranspositionTable.NO_MOVE) {
+            return null;
+        }
+        return board.toMove(this.bestMove);
+    }
+
+    public boolean isAborted() {
+        return this.aborted;
+    }
+
+    /**
+     * The moves of the prepared position, in the order searchRoot() would
+     * try them.
+     */
+    public int[] generateRootMoves() {
+        int[] buffer = new int[board.getMaxMoves()];
+        int count = board.generateMoves(buffer);
+        int hashMove = TranspositionTable.NO_MOVE;
+        if ((this.tt != null) && (this.tt.probe(board.getHash()))) {
+            hashMove = this.tt.getMove();
+        }
+        this.orderMoves(buffer, count, 0, hashMove);
+        int[] result = new int[count];
+        System.arraycopy(buffer, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Searches a single move of the prepared position, the index-th one of
+     * generateRootMoves(), and returns its value for the player to move.
+     * For root splitting, where each move is searched by a different
+     * instance: the search starts from alpha.alphaFor(index) and narrows its
+     * window whenever another instance raises alpha. The value is exact if
+     * it is above alpha.alphaFor(index) once the search has returned, and an
+     * upper bound otherwise.
+     */
+    public int searchRootMove(int move, int index, SharedAlpha alpha) {
+        this.sharedAlpha = alpha;
+        this.rootIndex = index;
+        this.nodeCount++;
+        long undo = board.makeMove(move);
+        //The first move gets the full window under PVS, the others a null one:
+        int value = searchChild(index, 1, maxDepth, alpha.alphaFor(index), INFINITY, -1);
+        board.undoMove(move, undo);
+        this.sharedAlpha = null;
+        return value;
+    }
+
+    /**
+     * The move as a Move of the game.
+     */
+    public Move toMove(int move) {
+        return board.toMove(move);
+    }
+
+    private int negamax(int depth, int maxDepth, int alpha, int beta, int colour) {
+        this.nodeCount++;
+        if ((this.deadline != null) && (this.nodeCount % Deadline.CHECK_INTERVAL == 0) && (this.deadline.hasExpired())) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return 0;
+        }
+        if (board.isEndGame()) {
+            return colour * eval.evaluate(board);
+        }
+        if (depth == maxDepth) {
+            this.depthLimitReached = true;
+            return colour * eval.evaluate(board);
+        }
+        if (this.sharedAlpha != null) {
+            //Other instances may have raised the alpha of the root since the
+            //window was passed down; it bounds the root player from below:
+            int shared = this.sharedAlpha.alphaFor(this.rootIndex);
+            if (colour == 1) {
+                alpha = Math.max(alpha, shared);
+                if (alpha >= beta) {
+                    return alpha;
+                }
+            } else {
+                beta = Math.min(beta, -shared);
+                if (alpha >= beta) {
+                    return beta;
+                }
+            }
+        }
+        int[] buffer = moves[depth];
+        int count = board.generateMoves(buffer);
+        if (count == 0) {
+            long undo = board.makeMove(SearchBoard.PASS);
+            int value = -negamax(depth + 1, maxDepth, -beta, -alpha, -colour);
+            board.undoMove(SearchBoard.PASS, undo);
+            return value;
+        }
+
+        int remaining = maxDepth - depth;
+        long key = 0;
+        int hashMove = TranspositionTable.NO_MOVE;
+        if (this.tt != null) {
+            key = board.getHash();
+            if (this.tt.probe(key)) {
+                if (this.tt.getDepth() >= remaining) {
+                    int score = this.tt.getScore();
+                    int bound = this.tt.getBound();
+                    if (bound == TranspositionTable.LOWER_BOUND) {
+                        alpha = Math.max(alpha, score);
+                    } else if (bound == TranspositionTable.UPPER_BOUND) {
+                        beta = Math.min(beta, score);
+                    }
+                    if ((bound == TranspositionTable.EXACT) || (alpha >= beta)) {
+                        //The stored search may have been cut off by its depth:
+                        this.depthLimitReached = true;
+                        return score;
+                    }
+                }
+                hashMove = this.tt.getMove();
+            }
+        }
+        this.orderMoves(buffer, count, depth, hashMove);
+
+        int alphaOrig = alpha;
+        int best = -INFINITY;
+        int bestMove = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            long undo = board.makeMove(move);
+            int value = searchChild(i, depth + 1, maxDepth, alpha, beta, -colour);
+            board.undoMove(move, undo);
+            if (this.aborted) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        if (this.ordering != null) {
+                            this.ordering.recordCutoff(move, depth, remaining);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (this.tt != null) {
+            this.tt.store(key, remaining, boundType(best, alphaOrig, beta), best, bestMove);
+        }
+        return best;
+    }
+
+    private static int boundType(int value, int alpha, int beta) {
+        if (value <= alpha) {
+            return TranspositionTable.UPPER_BOUND;
+        } else if (value >= beta) {
+            return TranspositionTable.LOWER_BOUND;
+        }
+        return TranspositionTable.EXACT;
+    }
+
+    //Searches the child the board is at, the index-th move of its parent,
+    //and returns its value for the parent:
+    private int searchChild(int index, int depth, int maxDepth, int alpha, int beta, int colour) {
+        if ((!this.principalVariationSearch) || (index == 0)) {
+            return -negamax(depth, maxDepth, -beta, -alpha, colour);
+        }
+        int value = -negamax(depth, maxDepth, -alpha - 1, -alpha, colour);
+        if ((value > alpha) && (value < beta) && (!this.aborted)) {
+            value = -negamax(depth, maxDepth, -beta, -alpha, colour);
+        }
+        return value;
+    }
+
+    private void orderMoves(int[] moves, int count, int ply, int hashMove) {
+        if (this.ordering != null) {
+            this.ordering.order(board, moves, count, ply, hashMove);
+            return;
+        }
+        if (this.principalVariationSearch) {
+            sortByStaticScore(board, moves, count);
+        }
+        if (hashMove != TranspositionTable.NO_MOVE) {
+            moveToFront(moves, count, hashMove);
+        }
+    }
+
+    static void sortByStaticScore(SearchBoard board, int[] moves, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = board.getStaticMoveScore(move);
+            int j = i - 1;
+            while ((j >= 0) && (board.getStaticMoveScore(moves[j]) < score)) {
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            moves[j + 1] = move;
+        }
+    }
+
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 1; i < count; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+}
@@ -34,13 +34,14 @@ public abstract class Node {
     private Node parent;
     private Vector<Node> children;
     private int nextChildIndex;
+    private Node bestChild;
     private Move moveLeadingHere;
     private Move nextMove;
     private int currentPlayer;
     private NodeType type;
     private int depth;
     private Integer value;
-    public static long NextNodeId;
+    private SearchContext context;
     private long nodeId;
 
     public Node() {
@@ -62,7 +63,7 @@ public abstract class Node {
             this.setValue(null);
             this.setVisited(false);
             this.setExpanded(false);
-            Node.NextNodeId = 0;
+            this.context = new SearchContext();
 
         } else {
             this.setParent(parent);
@@ -74,11 +75,33 @@ public abstract class Node {
             this.setVisited(false);
             this.setExpanded(false);
             this.setType(this.invertType(parent.getType()));
+            this.context = parent.getSearchContext();
         }
 
         this.nextChildIndex = 0;
-        this.nodeId = Node.NextNodeId;
-        Node.NextNodeId++;
+        this.nodeId = this.context.nextNodeId();
+    }
+
+    /**
+     * Forgets the children and the search results so that the node can be
+     * searched again, e.g. one iteration deeper.
+     */
+    void reset() {
+        this.children = new Vector<Node>();
+        this.nextChildIndex = 0;
+        this.bestChild = null;
+        this.value = null;
+        this.setNextMove(null);
+        this.setVisited(false);
+        this.setExpanded(false);
+    }
+
+    public SearchContext getSearchContext() {
+        return this.context;
+    }
+
+    public long getNodeId() {
+        return this.nodeId;
     }
 
     public Node getParent() {
@@ -164,6 +187,33 @@ public abstract class Node {
         return (this.nextChildIndex <= this.getChildren().size() - 1);
     }
 
+    /**
+     * Drops a child whose search has finished, unless the value of this node
+     * came from it, in which case the child it replaces is dropped instead.
+     * Only the principal variation stays reachable, so the searched part of
+     * the tree can be garbage collected while the search goes on.
+     */
+    public void releaseChild(Node child) {
+        if ((this.nextMove != null) && (child.getMoveLeadingHere() == this.nextMove)) {
+            if (this.bestChild == child) {
+                return;
+            }
+            Node replaced = this.bestChild;
+            this.bestChild = child;
+            child = replaced;
+            if (child == null) {
+                return;
+            }
+        }
+        int index = this.children.indexOf(child);
+        if (index >= 0) {
+            this.children.remove(index);
+            if (index < this.nextChildIndex) {
+                this.nextChildIndex--;
+            }
+        }
+    }
+
     public Move getNextMove() {
         return this.nextMove;
     }
@@ -172,6 +222,17 @@ public abstract class Node {
         this.nextMove = m;
     }
 
+    /**
+     * Returns a mutable copy of this node's position for the make/unmake
+     * searches; changes made to it do not affect the node.
+     */
+    public abstract SearchBoard createSearchBoard();
+
+    /**
+     * A hash of the position, the same as getHash() of its SearchBoard.
+     */
+    public abstract long getHash();
+
     public abstract boolean isEndGameNode();/*{
     return this.getState().checkGameOver();
     }*/
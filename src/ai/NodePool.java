@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * Node storage for depth-first searches on a SearchBoard: instead of a Node
+ * object per position, the positions of the current line are kept one per
+ * ply in primitive arrays (their moves, the next move to search, the value
+ * and best move found so far and the undo record of the move leading to
+ * the next ply). The memory used is proportional to the depth times the
+ * number of moves per position, and searching allocates nothing once the
+ * arrays are big enough, so a pool is best kept and reused between
+ * searches. Even plies are MAX positions and odd plies MIN positions, as
+ * with Node.
+ *
+ * @author cyberpython
+ */
+public class NodePool {
+
+    private static final int NOT_EXPANDED = -1;
+
+    private int[][] moves;
+    private int[] count;
+    private int[] next;
+    private int[] value;
+    private boolean[] valueSet;
+    private int[] bestMove;
+    private long[] undo;
+    private int maxMoves;
+
+    public NodePool() {
+        this.allocate(0, 0);
+    }
+
+    /**
+     * Makes room for plies 0 to maxPly with up to maxMoves moves each, and
+     * clears ply 0 for the root of a new search.
+     */
+    public void prepare(int maxPly, int maxMoves) {
+        if ((this.moves.length <= maxPly) || (this.maxMoves < maxMoves)) {
+            this.allocate(Math.max(maxPly + 1, this.moves.length), Math.max(maxMoves, this.maxMoves));
+        }
+        this.clear(0);
+    }
+
+    private void allocate(int plies, int maxMoves) {
+        this.maxMoves = maxMoves;
+        this.moves = new int[plies][maxMoves];
+        this.count = new int[plies];
+        this.next = new int[plies];
+        this.value = new int[plies];
+        this.valueSet = new boolean[plies];
+        this.bestMove = new int[plies];
+        this.undo = new long[plies];
+    }
+
+    /**
+     * Makes the ply hold a new position, not yet expanded and without a value.
+     */
+    public void clear(int ply) {
+        this.count[ply] = NOT_EXPANDED;
+        this.next[ply] = 0;
+        this.valueSet[ply] = false;
+        this.bestMove[ply] = TranspositionTable.NO_MOVE;
+    }
+
+    public static boolean isMax(int ply) {
+        return ((ply & 1) == 0);
+    }
+
+    public boolean isExpanded(int ply) {
+        return (this.count[ply] != NOT_EXPANDED);
+    }
+
+    /**
+     * Generates the moves of the position at ply, which the board is at.
+     */
+    public void expand(int ply, SearchBoard board) {
+        this.count[ply] = board.generateMoves(this.moves[ply]);
+        this.next[ply] = 0;
+    }
+
+    public boolean hasMoreChildren(int ply) {
+        return (this.next[ply] < this.count[ply]);
+    }
+
+    /**
+     * The next move of the position at ply to search.
+     */
+    public int nextChild(int ply) {
+        int move = this.moves[ply][this.next[ply]];
+        this.next[ply]++;
+        return move;
+    }
+
+    /**
+     * The move searched last at ply, i.e. the one leading to ply + 1.
+     */
+    public int getCurrentMove(int ply) {
+        return this.moves[ply][this.next[ply] - 1];
+    }
+
+    public void setUndo(int ply, long undo) {
+        this.undo[ply] = undo;
+    }
+
+    public long getUndo(int ply) {
+        return this.undo[ply];
+    }
+
+    public boolean hasValue(int ply) {
+        return this.valueSet[ply];
+    }
+
+    public int getValue(int ply) {
+        return this.value[ply];
+    }
+
+    /**
+     * Same as Node.setValue(): keeps the value if the ply has none yet or if
+     * it is better for the player of the ply, and returns whether it did.
+     */
+    public boolean setValue(int ply, int newValue) {
+        if ((!this.valueSet[ply]) || ((isMax(ply)) && (newValue > this.value[ply])) || ((!isMax(ply)) && (newValue < this.value[ply]))) {
+            this.value[ply] = newValue;
+            this.valueSet[ply] = true;
+            return true;
+        }
+        return false;
+    }
+
+    public int getBestMove(int ply) {
+        return this.bestMove[ply];
+    }
+
+    public void setBestMove(int ply, int move) {
+        this.bestMove[ply] = move;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Root splitting: the first move of the root is searched on its own, then
+ * the other moves are searched in parallel, one task per move, on a
+ * ForkJoinPool. The best value found so far by any of them is shared
+ * (SharedAlpha) and every running task narrows its window as soon as it
+ * improves, so the moves are cut off sooner.
+ * Each task searches with a NegaMax of its own; a transposition table is
+ * not used since the table is not thread-safe.
+ * <p>
+ * The result is the same as that of the serial search: among moves of
+ * equal value the first one generated is kept.
+ *
+ * @author cyberpython
+ */
+public class ParallelSearch {
+
+    private ForkJoinPool pool;
+    private Evaluator eval;
+    private MoveOrdering ordering;
+    private boolean principalVariationSearch;
+    private SharedAlpha alpha;
+    private int bestMove;
+    private long nodeCount;
+    private boolean aborted;
+    private boolean depthLimitReached;
+
+    public ParallelSearch(ForkJoinPool pool, Evaluator eval) {
+        this.pool = pool;
+        this.eval = eval;
+        this.nodeCount = 0;
+    }
+
+    /**
+     * Each task sorts its moves with a new instance of the given ordering.
+     */
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.ordering = ordering;
+    }
+
+    public void setPrincipalVariationSearch(boolean pvs) {
+        this.principalVariationSearch = pvs;
+    }
+
+    public synchronized long getNodeCount() {
+        return this.nodeCount;
+    }
+
+    public synchronized boolean hasReachedDepthLimit() {
+        return this.depthLimitReached;
+    }
+
+    /**
+     * Same as NegaMax.search(n, maxDepth, deadline), using the threads of
+     * the pool.
+     */
+    public boolean search(final Node n, final int maxDepth, final Deadline deadline) {
+        NegaMax first = this.createSearch();
+        synchronized (this) {
+            this.aborted = false;
+            this.depthLimitReached = false;
+            this.alpha = new SharedAlpha();
+            this.bestMove = TranspositionTable.NO_MOVE;
+        }
+        if (!first.prepare(n, maxDepth, deadline)) {
+            return true;
+        }
+        int[] moves = first.generateRootMoves();
+        if (moves.length == 0) {
+            return true;
+        }
+        //The first move gives the others a bound to start from:
+        this.searchMove(first, moves[0], 0);
+
+        final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (int i = 1; i < moves.length; i++) {
+            final int move = moves[i];
+            final int index = i;
+            tasks.add(new RecursiveAction() {
+
+                @Override
+                protected void compute() {
+                    if (isAborted()) {
+                        return;
+                    }
+                    NegaMax search = createSearch();
+                    search.prepare(n, maxDepth, deadline);
+                    searchMove(search, move, index);
+                }
+            });
+        }
+        if (!tasks.isEmpty()) {
+            this.pool.invoke(new RecursiveAction() {
+
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
+
+        synchronized (this) {
+            if (this.aborted) {
+                return false;
+            }
+            n.setValue(this.alpha.getValue());
+            n.setNextMove(first.toMove(this.bestMove));
+        }
+        return true;
+    }
+
+    private synchronized boolean isAborted() {
+        return this.aborted;
+    }
+
+    private NegaMax createSearch() {
+        NegaMax search = new NegaMax(this.eval);
+        if (this.ordering != null) {
+            search.setMoveOrdering(this.ordering.newInstance());
+        }
+        search.setPrincipalVariationSearch(this.principalVariationSearch);
+        return search;
+    }
+
+    private void searchMove(NegaMax search, int move, int index) {
+        int value = search.searchRootMove(move, index, this.alpha);
+        synchronized (this) {
+            this.nodeCount += search.getNodeCount();
+            this.depthLimitReached |= search.hasReachedDepthLimit();
+            if (search.isAborted()) {
+                this.aborted = true;
+                return;
+            }
+            //Values not above the final alpha of the move are only upper
+            //bounds, and improve() rejects them:
+            if (this.alpha.improve(value, index)) {
+                this.bestMove = move;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+/**
+ * A single mutable position that a search walks with makeMove() and
+ * undoMove() instead of creating a Node for every position it visits.
+ * Moves are int codes from 0 to getMaxMoves() - 1 chosen by the
+ * implementation; PASS is reserved for handing the turn over when the side
+ * to move has no moves.
+ *
+ * @author cyberpython
+ */
+public abstract class SearchBoard {
+
+    public static final int PASS = -1;
+
+    /**
+     * The size of the buffer generateMoves() may fill, which is also the
+     * upper limit (exclusive) of the move codes.
+     */
+    public abstract int getMaxMoves();
+
+    /**
+     * Writes the moves of the side to move into the buffer and returns
+     * their count.
+     */
+    public abstract int generateMoves(int[] moves);
+
+    /**
+     * Plays a move (or PASS) and returns the record undoMove() needs.
+     */
+    public abstract long makeMove(int move);
+
+    public abstract void undoMove(int move, long undo);
+
+    public abstract boolean isEndGame();
+
+    /**
+     * The result of a finished game for the side to move: 1 for a win, 0
+     * for a draw and -1 for a loss.
+     */
+    public abstract int getOutcome();
+
+    /**
+     * A 64-bit hash of the current position, including the side to move,
+     * that is updated as moves are made and undone.
+     */
+    public abstract long getHash();
+
+    /**
+     * A fixed estimate of how good a move usually is, between -100 and 100,
+     * used to order moves that nothing else is known about.
+     */
+    public int getStaticMoveScore(int move) {
+        return 0;
+    }
+
+    /**
+     * An independent copy of the current position, e.g. for a search of
+     * one of its moves on another thread.
+     */
+    public abstract SearchBoard copy();
+
+    /**
+     * Converts a move code for the side to move into the Move that is
+     * reported through Node.getNextMove().
+     */
+    public abstract Move toMove(int move);
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The best root value found so far by the tasks of a root splitting search,
+ * with the index of the move it came from. Running searches read it at every
+ * position and narrow their windows as soon as any task improves it.
+ *
+ * @author cyberpython
+ */
+public class SharedAlpha {
+
+    //Value in the upper half, move index in the lower one, so that both are
+    //read and replaced together:
+    private AtomicLong best;
+
+    public SharedAlpha() {
+        this.best = new AtomicLong(pack(-NegaMax.INFINITY, Integer.MAX_VALUE));
+    }
+
+    public int getValue() {
+        return (int) (this.best.get() >> 32);
+    }
+
+    public int getIndex() {
+        return (int) this.best.get();
+    }
+
+    /**
+     * The alpha bound for the move with the given index. A move generated
+     * before the best one is kept if it is as good, so its bound is one
+     * less. The bound never decreases.
+     */
+    public int alphaFor(int index) {
+        long packed = this.best.get();
+        int value = (int) (packed >> 32);
+        if ((value > -NegaMax.INFINITY) && (index < (int) packed)) {
+            value--;
+        }
+        return value;
+    }
+
+    /**
+     * Records the exact value of the move with the given index and returns
+     * whether it is the new best: a higher value, or the same value from a
+     * move generated earlier.
+     */
+    public boolean improve(int value, int index) {
+        long packed = pack(value, index);
+        while (true) {
+            long current = this.best.get();
+            int bestValue = (int) (current >> 32);
+            if ((value < bestValue) || ((value == bestValue) && (index >= (int) current))) {
+                return false;
+            }
+            if (this.best.compareAndSet(current, packed)) {
+                return true;
+            }
+        }
+    }
+
+    private static long pack(int value, int index) {
+        return (((long) value) << 32) | (index & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of search results keyed by SearchBoard.getHash().
+ *
+ * The table is a power-of-two number of buckets packed into one long[].
+ * Each bucket has two slots of two longs (key, data): the first slot keeps
+ * the deepest result seen for the bucket, the second one always takes the
+ * results the first one refuses. The data word holds the score (bits 0-31),
+ * the remaining depth (32-39), the bound type (40-41) and the best move + 2
+ * (42-57), so move codes must lie between PASS and 65533.
+ *
+ * The key word of a slot is stored XORed with its data word, so a slot
+ * that was written half by one thread and half by another does not match
+ * any key. This lets searches running in parallel share the entries
+ * without locking, each through a table of its own made with
+ * TranspositionTable(TranspositionTable).
+ *
+ * @author cyberpython
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+    public static final int NO_MOVE = -2;
+
+    private static final int LONGS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * 8;
+
+    private long[] table;
+    private int bucketMask;
+
+    private long probes;
+    private long hits;
+    private long collisions;
+    private long stores;
+    private long overwrites;
+
+    //Last probed entry, valid after probe() returned true:
+    private int score;
+    private int depth;
+    private int bound;
+    private int move;
+
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / BYTES_PER_BUCKET);
+        //Keep the array within the limits of a Java array:
+        buckets = Math.min(buckets, 1L << 28);
+        this.table = new long[(int) buckets * LONGS_PER_BUCKET];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * A table sharing the entries of the given one, for a search on another
+     * thread. The probed entry and the statistics are kept per table.
+     */
+    public TranspositionTable(TranspositionTable shared) {
+        this.table = shared.table;
+        this.bucketMask = shared.bucketMask;
+    }
+
+    public int getSizeInBytes() {
+        return this.table.length * 8;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, 0);
+    }
+
+    /**
+     * Looks up a position; on a hit the stored values are available through
+     * getScore(), getDepth(), getBound() and getMove().
+     */
+    public boolean probe(long key) {
+        this.probes++;
+        int index = this.indexOf(key);
+        for (int slot = index; slot < index + LONGS_PER_BUCKET; slot += 2) {
+            long data = this.table[slot + 1];
+            if ((data != 0) && ((this.table[slot] ^ data) == key)) {
+                this.unpack(data);
+                this.hits++;
+                return true;
+            }
+        }
+        if ((this.table[index + 1] != 0) || (this.table[index + 3] != 0)) {
+            this.collisions++;
+        }
+        return false;
+    }
+
+    public void store(long key, int depth, int bound, int score, int move) {
+        this.stores++;
+        int index = this.indexOf(key);
+        long data = pack(depth, bound, score, move);
+        long deepData = this.table[index + 1];
+        int slot;
+        if ((deepData == 0) || ((this.table[index] ^ deepData) == key) || (depth >= depthOf(deepData))) {
+            slot = index;
+        } else {
+            slot = index + 2;
+        }
+        long oldData = this.table[slot + 1];
+        if ((oldData != 0) && ((this.table[slot] ^ oldData) != key)) {
+            this.overwrites++;
+        }
+        this.table[slot] = key ^ data;
+        this.table[slot + 1] = data;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public int getBound() {
+        return this.bound;
+    }
+
+    public int getMove() {
+        return this.move;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Statistics">
+    public long getProbes() {
+        return this.probes;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.probes - this.hits;
+    }
+
+    /**
+     * Misses on a bucket that held other positions.
+     */
+    public long getCollisions() {
+        return this.collisions;
+    }
+
+    public long getStores() {
+        return this.stores;
+    }
+
+    /**
+     * Stores that replaced the entry of a different position.
+     */
+    public long getOverwrites() {
+        return this.overwrites;
+    }
+
+    public double getHitRate() {
+        return rate(this.hits, this.probes);
+    }
+
+    public double getMissRate() {
+        return rate(this.getMisses(), this.probes);
+    }
+
+    public double getCollisionRate() {
+        return rate(this.collisions, this.probes);
+    }
+
+    public void resetStatistics() {
+        this.probes = 0;
+        this.hits = 0;
+        this.collisions = 0;
+        this.stores = 0;
+        this.overwrites = 0;
+    }
+
+    private static double rate(long count, long total) {
+        if (total == 0) {
+            return 0;
+        }
+        return (double) count / total;
+    }
+
+    @Override
+    public String toString() {
+        return "TT " + (this.getSizeInBytes() / (1024 * 1024)) + "MB: " + this.probes + " probes, hits " + percent(this.getHitRate())
+                + ", misses " + percent(this.getMissRate()) + ", collisions " + percent(this.getCollisionRate())
+                + ", " + this.stores + " stores, " + this.overwrites + " overwrites";
+    }
+
+    private static String percent(double rate) {
+        return (Math.round(rate * 1000) / 10.0) + "%";
+    }
+    // </editor-fold>
+
+    private int indexOf(long key) {
+        int h = (int) (key ^ (key >>> 32));
+        return (h & this.bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    private static long pack(int depth, int bound, int score, int move) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) ((move + 2) & 0xFFFF) << 42);
+    }
+
+    private static int depthOf(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    private void unpack(long data) {
+        this.score = (int) data;
+        this.depth = depthOf(data);
+        this.bound = (int) ((data >>> 40) & 0x3);
+        this.move = (int) ((data >>> 42) & 0xFFFF) - 2;
+    }
+}
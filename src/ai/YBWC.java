@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Young Brothers Wait Concept: a parallel negamax search with alpha-beta
+ * bounds. At every position the first move (the eldest brother) is searched
+ * alone, since it often causes a cutoff or gives the bound for the others.
+ * Only then are the other moves (the younger brothers) searched in
+ * parallel, one ForkJoin task each, on a copy of the board. The tasks share
+ * the alpha bound of the position, and once one of them causes a cutoff the
+ * others, and everything they split off in turn, are abandoned.
+ * <p>
+ * Positions closer than getMinSplitDepth() plies to the depth limit are
+ * searched serially. The moves are sorted by SearchBoard.getStaticMoveScore().
+ *
+ * @author cyberpython
+ */
+public class YBWC {
+
+    public static final int DEFAULT_MIN_SPLIT_DEPTH = 3;
+
+    private ForkJoinPool pool;
+    private Evaluator eval;
+    private int minSplitDepth;
+    private int maxDepth;
+    private Deadline deadline;
+    private volatile boolean aborted;
+    private long nodeCount;
+    private long splitCount;
+    private boolean depthLimitReached;
+
+    /**
+     * Without a pool (null) the search runs serially on the calling thread.
+     */
+    public YBWC(ForkJoinPool pool, Evaluator eval) {
+        this.pool = pool;
+        this.eval = eval;
+        this.minSplitDepth = DEFAULT_MIN_SPLIT_DEPTH;
+    }
+
+    /**
+     * Positions with fewer plies left to the depth limit are not split.
+     */
+    public void setMinSplitDepth(int depth) {
+        this.minSplitDepth = Math.max(1, depth);
+    }
+
+    public int getMinSplitDepth() {
+        return this.minSplitDepth;
+    }
+
+    public synchronized long getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * The number of positions whose younger brothers were searched in parallel.
+     */
+    public synchronized long getSplitCount() {
+        return this.splitCount;
+    }
+
+    public synchronized boolean hasReachedDepthLimit() {
+        return this.depthLimitReached;
+    }
+
+    /**
+     * Same as NegaMax.search(n, maxDepth, deadline), using the threads of
+     * the pool.
+     */
+    public boolean search(Node n, int maxDepth, Deadline deadline) {
+        synchronized (this) {
+            this.depthLimitReached = false;
+        }
+        this.aborted = false;
+        if (n.isEndGameNode()) {
+            return true;
+        }
+        if (maxDepth <= 0) {
+            n.setValue(eval.evaluate(n));
+            return true;
+        }
+        this.maxDepth = maxDepth;
+        this.deadline = deadline;
+
+        final Worker root = new Worker(n.createSearchBoard());
+        final Split result = new Split(null, -NegaMax.INFINITY, NegaMax.INFINITY);
+        if (this.pool != null) {
+            this.pool.invoke(new RecursiveAction() {
+
+                @Override
+                protected void compute() {
+                    root.searchRoot(result);
+                    root.finish();
+                }
+            });
+        } else {
+            root.searchRoot(result);
+            root.finish();
+        }
+        if (this.aborted) {
+            return false;
+        }
+        if (result.bestMove != TranspositionTable.NO_MOVE) {
+            n.setValue(result.best);
+            n.setNextMove(root.board.toMove(result.bestMove));
+        }
+        return true;
+    }
+
+    private boolean canSplit(int remainingDepth) {
+        return (this.pool != null) && (remainingDepth >= this.minSplitDepth);
+    }
+
+    private boolean isAborted(Split split) {
+        if (this.aborted) {
+            return true;
+        }
+        for (Split s = split; s != null; s = s.parent) {
+            if (s.cutoff) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //A position whose younger brothers are being searched in parallel:
+    private static class Split {
+
+        private Split parent;
+        private volatile boolean cutoff;
+        private int alpha;
+        private int beta;
+        private int best;
+        private int bestMove;
+        private int bestIndex;
+
+        public Split(Split parent, int alpha, int beta) {
+            this.parent = parent;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.best = -NegaMax.INFINITY;
+            this.bestMove = TranspositionTable.NO_MOVE;
+            this.bestIndex = Integer.MAX_VALUE;
+        }
+
+        //A move generated before the best one is kept if it is as good, so
+        //it has to be searched with a window that shows that:
+        public synchronized int getAlpha(int index) {
+            if ((index < this.bestIndex) && (this.alpha > -NegaMax.INFINITY)) {
+                return this.alpha - 1;
+            }
+            return this.alpha;
+        }
+
+        public synchronized void update(int value, int windowAlpha, int move, int index) {
+            //Values not above the alpha they were searched with are only upper bounds:
+            if ((value > this.best) || ((value == this.best) && (value > windowAlpha) && (index < this.bestIndex))) {
+                this.best = value;
+                this.bestMove = move;
+                this.bestIndex = index;
+            }
+            if (value > this.alpha) {
+                this.alpha = value;
+                if (this.alpha >= this.beta) {
+                    this.cutoff = true;
+                }
+            }
+        }
+
+        public synchronized int getBest() {
+            return this.best;
+        }
+    }
+
+    //The board and move lists of one task:
+    private class Worker {
+
+        private SearchBoard board;
+        private int[][] moves;
+        private long nodes;
+        private boolean depthLimitReached;
+
+        public Worker(SearchBoard board) {
+            this.board = board;
+            this.moves = new int[maxDepth][board.getMaxMoves()];
+        }
+
+        public void finish() {
+            synchronized (YBWC.this) {
+                nodeCount += this.nodes;
+                YBWC.this.depthLimitReached |= this.depthLimitReached;
+            }
+        }
+
+        public void searchRoot(Split result) {
+            this.nodes++;
+            int[] buffer = this.moves[0];
+            int count = board.generateMoves(buffer);
+            NegaMax.sortByStaticScore(board, buffer, count);
+            if (count == 0) {
+                return;
+            }
+            this.searchMove(result, buffer[0], 0, 0, 1);
+            if (canSplit(maxDepth)) {
+                this.split(result, buffer, count, 0, 1);
+            } else {
+                for (int i = 1; (i < count) && (!isAborted(result)); i++) {
+                    this.searchMove(result, buffer[i], i, 0, 1);
+                }
+            }
+        }
+
+        //Searches the index-th move of the split position and records its value:
+        public void searchMove(Split s, int move, int index, int depth, int colour) {
+            if (isAborted(s)) {
+                return;
+            }
+            int alpha = s.getAlpha(index);
+            long undo = board.makeMove(move);
+            int value = -this.negamax(depth + 1, -s.beta, -alpha, -colour, s);
+            board.undoMove(move, undo);
+            if (!isAborted(s)) {
+                s.update(value, alpha, move, index);
+            }
+        }
+
+        private void split(final Split s, int[] buffer, int count, final int depth, final int colour) {
+            synchronized (YBWC.this) {
+                splitCount++;
+            }
+            List<RecursiveAction> brothers = new ArrayList<RecursiveAction>();
+            for (int i = 1; i < count; i++) {
+                final int move = buffer[i];
+                final int index = i;
+                final SearchBoard copy = board.copy();
+                brothers.add(new RecursiveAction() {
+
+                    @Override
+                    protected void compute() {
+                        Worker w = new Worker(copy);
+                        w.searchMove(s, move, index, depth, colour);
+                        w.finish();
+                    }
+                });
+            }
+            RecursiveAction.invokeAll(brothers);
+        }
+
+        private int negamax(int depth, int alpha, int beta, int colour, Split split) {
+            this.nodes++;
+            if ((deadline != null) && (this.nodes % Deadline.CHECK_INTERVAL == 0) && (deadline.hasExpired())) {
+                aborted = true;
+            }
+            if (isAborted(split)) {
+                return 0;
+            }
+            if (board.isEndGame()) {
+                return colour * eval.evaluate(board);
+            }
+            if (depth == maxDepth) {
+                this.depthLimitReached = true;
+                return colour * eval.evaluate(board);
+            }
+            int[] buffer = this.moves[depth];
+            int count = board.generateMoves(buffer);
+            if (count == 0) {
+                long undo = board.makeMove(SearchBoard.PASS);
+                int value = -this.negamax(depth + 1, -beta, -alpha, -colour, split);
+                board.undoMove(SearchBoard.PASS, undo);
+                return value;
+            }
+            NegaMax.sortByStaticScore(board, buffer, count);
+
+            //The eldest brother is always searched first and alone:
+            long undo = board.makeMove(buffer[0]);
+            int best = -this.negamax(depth + 1, -beta, -alpha, -colour, split);
+            board.undoMove(buffer[0], undo);
+            if (best > alpha) {
+                alpha = best;
+                if (alpha >= beta) {
+                    return best;
+                }
+            }
+            if ((count > 1) && (canSplit(maxDepth - depth))) {
+                Split s = new Split(split, alpha, beta);
+                s.update(best, -NegaMax.INFINITY, buffer[0], 0);
+                this.split(s, buffer, count, depth, colour);
+                return s.getBest();
+            }
+            for (int i = 1; i < count; i++) {
+                int move = buffer[i];
+                undo = board.makeMove(move);
+                int value = -this.negamax(depth + 1, -beta, -alpha, -colour, split);
+                board.undoMove(move, undo);
+                if (value > best) {
+                    best = value;
+                    if (value > alpha) {
+                        alpha = value;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -21,10 +21,20 @@
  */
 package reversi;
 
+import ai.CachedEvaluator;
+import ai.Deadline;
+import ai.EvaluationCache;
 import ai.Evaluator;
 import ai.MiniMax;
+import ai.MonteCarloTreeSearch;
+import ai.AspirationWindow;
+import ai.MoveOrdering;
+import ai.NodePool;
+import ai.TranspositionTable;
+import java.util.concurrent.ForkJoinPool;
 import reversi.exceptions.InvalidMoveException;
 import ai.MiniMax.SearchAlgorithm;
+import reversi.ai.EndgameSolver;
 import reversi.ai.ReversiEvaluator;
 import reversi.ai.ReversiEvaluator.EvaluationMethod;
 import reversi.ai.ReversiNode;
@@ -33,26 +43,102 @@ public class AIPlayer extends Thread {
 
     private GameController gc;
     private long waitFor;
+    private long searchTime;
     private int d;
     private ReversiNode n;
     private SearchAlgorithm algorithm;
     private EvaluationMethod evalMethod;
+    private TranspositionTable transpositionTable;
+    private MoveOrdering moveOrdering;
+    private AspirationWindow aspirationWindow;
+    private int endgameEmpties;
+    private EndgameSolver.Mode endgameMode;
+    private ForkJoinPool pool;
+    private int playoutBudget;
+    private NodePool nodePool;
+    private EvaluationCache evaluationCache;
 
-    public AIPlayer(GameController gc, ReversiNode n, int maxDepth, SearchAlgorithm algorithm, EvaluationMethod evalMethod, long waitForMillis) {
+    public AIPlayer(GameController gc, ReversiNode n, int maxDepth, SearchAlgorithm algorithm, EvaluationMethod evalMethod, long waitForMillis, long searchTimeMillis) {
         this.gc = gc;
         this.waitFor = waitForMillis;
+        this.searchTime = searchTimeMillis;
         this.d = maxDepth;
         this.n = n;
         this.algorithm = algorithm;
         this.evalMethod = evalMethod;
+        this.playoutBudget = MonteCarloTreeSearch.DEFAULT_PLAYOUTS;
+    }
+
+    public void setTranspositionTable(TranspositionTable tt) {
+        this.transpositionTable = tt;
+    }
+
+    public void setMoveOrdering(MoveOrdering ordering) {
+        this.moveOrdering = ordering;
+    }
+
+    public void setAspirationWindow(AspirationWindow window) {
+        this.aspirationWindow = window;
+    }
+
+    public void setForkJoinPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void setPlayoutBudget(int playouts) {
+        this.playoutBudget = playouts;
+    }
+
+    public void setNodePool(NodePool nodes) {
+        this.nodePool = nodes;
+    }
+
+    public void setEvaluationCache(EvaluationCache cache) {
+        this.evaluationCache = cache;
+    }
+
+    /**
+     * Solves the game exactly instead of searching when at most
+     * <code>empties</code> squares are empty (0 never). With a search time
+     * the solver gets half of it, and the search plays the move if it runs
+     * out.
+     */
+    public void setEndgameSolver(int empties, EndgameSolver.Mode mode) {
+        this.endgameEmpties = empties;
+        this.endgameMode = mode;
     }
 
     @Override
     public void run() {
         long time1 = System.currentTimeMillis();
-        MiniMax m = new MiniMax();
-        Evaluator eval = new ReversiEvaluator(n.getCurrentPlayer(), evalMethod);
-        m.apply(n, d, algorithm, eval);
+        boolean solved = false;
+        if ((endgameEmpties > 0) && (EndgameSolver.countEmpties(n.getState()) <= endgameEmpties)) {
+            Deadline deadline = null;
+            if (searchTime > 0) {
+                deadline = new Deadline(searchTime / 2);
+            }
+            solved = new EndgameSolver(endgameMode).solve(n, deadline);
+        }
+        if (!solved) {
+            //What is left of the search time after the solver (at least 1ms,
+            //as 0 would mean no limit):
+            long budget = searchTime;
+            if (searchTime > 0) {
+                budget = Math.max(1, searchTime - (System.currentTimeMillis() - time1));
+            }
+            MiniMax m = new MiniMax();
+            m.setTranspositionTable(transpositionTable);
+            m.setMoveOrdering(moveOrdering);
+            m.setAspirationWindow(aspirationWindow);
+            m.setForkJoinPool(pool);
+            m.setPlayoutBudget(playoutBudget);
+            m.setNodePool(nodePool);
+            Evaluator eval = new ReversiEvaluator(n.getCurrentPlayer(), evalMethod);
+            if (evaluationCache != null) {
+                eval = new CachedEvaluator(eval, evaluationCache);
+            }
+            m.apply(n, d, algorithm, eval, budget);
+        }
         //System.out.println(n.label + " = " + n.getMiniMaxValue());
 
         long time2 = System.currentTimeMillis();
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi;
+
+/**
+ * Helpers for the 64-bit board representation used by State.
+ * The square (x, y) is mapped to bit (y * 8 + x), so bit 0 is the top left
+ * corner and the bits of a row are contiguous.
+ */
+public class BitBoard {
+
+    public static final long NOT_A_FILE = 0xfefefefefefefefeL;
+    public static final long NOT_H_FILE = 0x7f7f7f7f7f7f7f7fL;
+    private static final long INNER_FILES = 0x7e7e7e7e7e7e7e7eL;
+    private static final long INNER_RANKS = 0x00ffffffffffff00L;
+    private static final long INNER_SQUARES = 0x007e7e7e7e7e7e00L;
+
+    public static int square(int x, int y) {
+        return (y << 3) | x;
+    }
+
+    public static int getX(int square) {
+        return square & 7;
+    }
+
+    public static int getY(int square) {
+        return square >>> 3;
+    }
+
+    public static long mask(int x, int y) {
+        return 1L << square(x, y);
+    }
+
+    /**
+     * Returns the squares on which a disc of the player owning <code>own</code>
+     * would flip at least one of the <code>opp</code> discs.
+     */
+    public static long legalMoves(long own, long opp) {
+        long empty = ~(own | opp);
+        long moves = movesInDirection(own, opp & INNER_FILES, 1);
+        moves |= movesInDirection(own, opp & INNER_RANKS, 8);
+        moves |= movesInDirection(own, opp & INNER_SQUARES, 7);
+        moves |= movesInDirection(own, opp & INNER_SQUARES, 9);
+        return moves & empty;
+    }
+
+    /**
+     * Same as <code>legalMoves(own, opp) != 0</code> but returns as soon as
+     * one of the line directions yields a move.
+     */
+    public static boolean hasLegalMove(long own, long opp) {
+        long empty = ~(own | opp);
+        if ((movesInDirection(own, opp & INNER_FILES, 1) & empty) != 0) {
+            return true;
+        }
+        if ((movesInDirection(own, opp & INNER_RANKS, 8) & empty) != 0) {
+            return true;
+        }
+        if ((movesInDirection(own, opp & INNER_SQUARES, 7) & empty) != 0) {
+            return true;
+        }
+        return ((movesInDirection(own, opp & INNER_SQUARES, 9) & empty) != 0);
+    }
+
+    /**
+     * Returns the squares next to at least one square of <code>b</code>, in
+     * any of the eight directions (which may include squares of b).
+     */
+    public static long neighbours(long b) {
+        long sides = ((b << 1) & NOT_A_FILE) | ((b >>> 1) & NOT_H_FILE);
+        long row = b | sides;
+        return sides | (row << 8) | (row >>> 8);
+    }
+
+    // Follows runs of opponent discs away from own discs, both ways along one
+    // line. The mask excludes the squares from which a shift would wrap.
+    private static long movesInDirection(long own, long mask, int shift) {
+        long t = mask & (own << shift);
+        t |= mask & (t << shift);
+        t |= mask & (t << shift);
+        t |= mask & (t << shift);
+        t |= mask & (t << shift);
+        t |= mask & (t << shift);
+        long moves = t << shift;
+
+        t = mask & (own >>> shift);
+        t |= mask & (t >>> shift);
+        t |= mask & (t >>> shift);
+        t |= mask & (t >>> shift);
+        t |= mask & (t >>> shift);
+        t |= mask & (t >>> shift);
+        moves |= t >>> shift;
+
+        return moves;
+    }
+
+    /**
+     * Returns the <code>opp</code> discs that are flipped when the player
+     * owning <code>own</code> places a disc on <code>square</code>.
+     */
+    public static long flips(long own, long opp, int square) {
+        long move = 1L << square;
+        long flipped = flipsLeft(own, opp, move, 1, NOT_A_FILE);
+        flipped |= flipsRight(own, opp, move, 1, NOT_H_FILE);
+        flipped |= flipsLeft(own, opp, move, 8, -1L);
+        flipped |= flipsRight(own, opp, move, 8, -1L);
+        flipped |= flipsLeft(own, opp, move, 7, NOT_H_FILE);
+        flipped |= flipsRight(own, opp, move, 7, NOT_A_FILE);
+        flipped |= flipsLeft(own, opp, move, 9, NOT_A_FILE);
+        flipped |= flipsRight(own, opp, move, 9, NOT_H_FILE);
+        return flipped;
+    }
+
+    private static long flipsLeft(long own, long opp, long move, int shift, long wrapMask) {
+        long line = 0;
+        long b = (move << shift) & wrapMask;
+        while ((b & opp) != 0) {
+            line |= b;
+            b = (b << shift) & wrapMask;
+        }
+        if ((b & own) != 0) {
+            return line;
+        }
+        return 0;
+    }
+
+    private static long flipsRight(long own, long opp, long move, int shift, long wrapMask) {
+        long line = 0;
+        long b = (move >>> shift) & wrapMask;
+        while ((b & opp) != 0) {
+            line |= b;
+            b = (b >>> shift) & wrapMask;
+        }
+        if ((b & own) != 0) {
+            return line;
+        }
+        return 0;
+    }
+}
@@ -33,6 +33,7 @@ public class Board {
     private int boardDimension;
     private Vector<BoardListener> views;
     private boolean gameOver;
+    private boolean gameOverChecked;
 
     public Board() {
         this.boardDimension = Utils.BOARD_SIZE;
@@ -41,6 +42,7 @@ public class Board {
 
         this.views = new Vector<BoardListener>();
         this.gameOver = false;
+        this.gameOverChecked = false;
 
         //Used for tests:
        //this.state.fillBoardDummy();
@@ -53,6 +55,8 @@ public class Board {
         this.state.set(4,4, Utils.WHITE);
     }
 
+    //The game over flag is cached, so the returned state should not be
+    //modified directly; use put() or setState() instead.
     public State getState() {
         return this.state;
     }
@@ -60,7 +64,7 @@ public class Board {
     public void setState(State s){
         if(s!=null){
             this.state = s;
-            this.gameOver = this.checkGameOver();
+            this.gameOverChecked = false;
             this.updateViews();
         }
     }
@@ -84,7 +88,7 @@ public class Board {
     public void put(int x, int y, int colour) throws InvalidMoveException {
         if (this.state.checkPosition(x, y, colour)) {
             this.state.put(x, y, colour);
-            this.gameOver = this.checkGameOver();
+            this.gameOverChecked = false;
             this.updateViews();            
         } else {
             throw new InvalidMoveException(x, y, colour);
@@ -96,7 +100,10 @@ public class Board {
     }
 
     public boolean isTheGameOver(){
-        this.gameOver = this.checkGameOver();
+        if (!this.gameOverChecked) {
+            this.gameOver = this.checkGameOver();
+            this.gameOverChecked = true;
+        }
         return this.gameOver;
     }
 
@@ -113,9 +120,18 @@ public class Board {
 
     private void flip(int x, int y, int colour) {
         this.state.flip(x,y,colour);
+        this.gameOverChecked = false;
         this.updateViews();
     }
 
+    public long legalMovesMask(int colour) {
+        return this.state.legalMovesMask(colour);
+    }
+
+    public int mobility(int colour) {
+        return this.state.mobility(colour);
+    }
+
     public Vector<Move> getValidMoves(int playerColour) {
         return this.state.getValidMoves(playerColour);
     }
@@ -24,7 +24,16 @@ package reversi;
 import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
 import ai.MiniMax;
+import ai.MTDF;
+import ai.MonteCarloTreeSearch;
+import ai.AspirationWindow;
+import ai.MoveOrdering;
+import ai.EvaluationCache;
+import ai.NodePool;
+import ai.TranspositionTable;
+import reversi.ai.EndgameSolver;
 import reversi.ai.ReversiEvaluator;
 import reversi.exceptions.InvalidMoveException;
 import reversi.ai.ReversiNode;
@@ -37,6 +46,17 @@ public class GameController implements IdleObject {
     private int player1Colour;
     private boolean singlePlayer;
     private long waitFor;
+    private long searchTime;
+    private TranspositionTable transpositionTable;
+    private TranspositionTable defaultTranspositionTable;
+    private MoveOrdering moveOrdering;
+    private AspirationWindow aspirationWindow;
+    private int endgameEmpties;
+    private EndgameSolver.Mode endgameMode;
+    private ForkJoinPool pool;
+    private int playoutBudget;
+    private NodePool nodePool;
+    private EvaluationCache evaluationCache;
     private int maxDepth;
     private MiniMax.SearchAlgorithm algorithm;
     private ReversiEvaluator.EvaluationMethod evalMethod;
@@ -52,7 +72,11 @@ public class GameController implements IdleObject {
         this.view = null;
         this.player1Colour = this.currentPlayerColour;
         this.waitFor = Utils.WAIT_FOR_MILLIS;
+        this.searchTime = Utils.SEARCH_TIME_MILLIS;
+        this.endgameMode = EndgameSolver.Mode.EXACT;
+        this.playoutBudget = MonteCarloTreeSearch.DEFAULT_PLAYOUTS;
         this.maxDepth = Utils.MAX_DEPTH;
+        this.endgameEmpties = defaultEndgameEmpties(this.maxDepth);
         this.singlePlayer = true;
         this.algorithm = MiniMax.SearchAlgorithm.ALPHA_BETA_PRUNING;
         this.evalMethod = ReversiEvaluator.EvaluationMethod.VALID_MOVES_AND_SIDES_COUNT;
@@ -73,6 +97,10 @@ public class GameController implements IdleObject {
         }
         this.currentPlayerColour = Utils.BLACK;
         this.waitFor = waitForMillis;
+        this.searchTime = Utils.SEARCH_TIME_MILLIS;
+        this.endgameEmpties = defaultEndgameEmpties(maxDepth);
+        this.endgameMode = EndgameSolver.Mode.EXACT;
+        this.playoutBudget = MonteCarloTreeSearch.DEFAULT_PLAYOUTS;
         this.maxDepth = maxDepth;
         this.board = null;
         this.view = null;
@@ -99,6 +127,10 @@ public class GameController implements IdleObject {
         this.algorithm = algorithm;
         this.evalMethod = evalMethod;
         this.waitFor = waitForMillis;
+        this.searchTime = Utils.SEARCH_TIME_MILLIS;
+        this.endgameEmpties = defaultEndgameEmpties(maxDepth);
+        this.endgameMode = EndgameSolver.Mode.EXACT;
+        this.playoutBudget = MonteCarloTreeSearch.DEFAULT_PLAYOUTS;
         this.singlePlayer = singlePlayer;
         this.gameUndoRedoListeners = new Vector<GameUndoRedoListener>();
         this.gameLoggers = new Vector<GameLogger>();
@@ -126,6 +158,171 @@ public class GameController implements IdleObject {
         }
     }
 
+    /**
+     * Limits the time the AI spends searching a move; with a positive value
+     * it deepens its search one ply at a time (up to the maximum depth) and
+     * plays the move of the deepest search completed in time.
+     */
+    public void setSearchTimeMillis(long searchTimeMillis) {
+        this.searchTime = searchTimeMillis;
+    }
+
+    public long getSearchTimeMillis() {
+        return this.searchTime;
+    }
+
+    /**
+     * Gives the AI a transposition table of the given size that is kept for
+     * the rest of the game; 0 removes it. NEGAMAX, PVS, MTDF and LAZY_SMP
+     * use it. Without it MTDF and LAZY_SMP, which need one, are given a
+     * default table of MTDF.DEFAULT_MEMORY_MB, made on the first move that
+     * needs it and kept in the same way.
+     */
+    public void setTranspositionTableSize(int megabytes) {
+        if (megabytes > 0) {
+            this.transpositionTable = new TranspositionTable(megabytes);
+        } else {
+            this.transpositionTable = null;
+        }
+    }
+
+    /**
+     * The AI's transposition table (or null), e.g. for its hit statistics.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    /**
+     * Lets the AI sort the moves it searches (best move so far, killer moves,
+     * history and corner-first square values); only NEGAMAX and PVS use it.
+     */
+    public void setMoveOrderingEnabled(boolean enabled) {
+        if (enabled) {
+            this.moveOrdering = new MoveOrdering();
+        } else {
+            this.moveOrdering = null;
+        }
+    }
+
+    /**
+     * Makes the AI search with aspiration windows of the given width around
+     * the value of a shallower search; 0 turns them off. Only NEGAMAX and
+     * PVS use them.
+     */
+    public void setAspirationWindowWidth(int width) {
+        if (width > 0) {
+            this.aspirationWindow = new AspirationWindow(width);
+        } else {
+            this.aspirationWindow = null;
+        }
+    }
+
+    /**
+     * The AI's aspiration windows (or null), e.g. for their re-search statistics.
+     */
+    public AspirationWindow getAspirationWindow() {
+        return this.aspirationWindow;
+    }
+
+    /**
+     * From how many empty squares on the AI stops searching and solves the
+     * rest of the game exactly; 0 never. By default Utils.ENDGAME_EMPTIES at
+     * the expert level (Utils.EXPERT_DEPTH) and 0 below it.
+     */
+    public void setEndgameEmpties(int empties) {
+        this.endgameEmpties = empties;
+    }
+
+    public int getEndgameEmpties() {
+        return this.endgameEmpties;
+    }
+
+    private static int defaultEndgameEmpties(int maxDepth) {
+        if (maxDepth >= Utils.EXPERT_DEPTH) {
+            return Utils.ENDGAME_EMPTIES;
+        }
+        return 0;
+    }
+
+    /**
+     * Whether the endgame solver looks for the best disc difference (EXACT)
+     * or only for a win (WIN_LOSS_DRAW), which lets it start earlier.
+     */
+    public void setEndgameMode(EndgameSolver.Mode mode) {
+        this.endgameMode = mode;
+    }
+
+    public EndgameSolver.Mode getEndgameMode() {
+        return this.endgameMode;
+    }
+
+    /**
+     * Lets NEGAMAX and PVS search the moves of the root on the given number
+     * of threads, and LAZY_SMP run that many threads in total; 1 searches
+     * on the AI's thread only.
+     */
+    public void setSearchThreads(int threads) {
+        if (this.pool != null) {
+            this.pool.shutdown();
+            this.pool = null;
+        }
+        if (threads > 1) {
+            this.pool = new ForkJoinPool(threads);
+        }
+    }
+
+    public int getSearchThreads() {
+        if (this.pool == null) {
+            return 1;
+        }
+        return this.pool.getParallelism();
+    }
+
+    /**
+     * The number of random games MCTS plays per move at most; 0 leaves it to
+     * the search time alone.
+     */
+    public void setPlayoutBudget(int playouts) {
+        this.playoutBudget = playouts;
+    }
+
+    public int getPlayoutBudget() {
+        return this.playoutBudget;
+    }
+
+    /**
+     * Lets ALPHA_BETA_PRUNING keep the positions it searches in a NodePool
+     * that is reused for every move, instead of creating a node for each.
+     */
+    public void setNodePoolEnabled(boolean enabled) {
+        if (enabled) {
+            this.nodePool = new NodePool();
+        } else {
+            this.nodePool = null;
+        }
+    }
+
+    /**
+     * Gives the AI a cache of leaf evaluations of the given size that is kept
+     * for the rest of the game, as the positions of one search come up again
+     * in the next; 0 removes it.
+     */
+    public void setEvaluationCacheSize(int megabytes) {
+        if (megabytes > 0) {
+            this.evaluationCache = new EvaluationCache(megabytes);
+        } else {
+            this.evaluationCache = null;
+        }
+    }
+
+    /**
+     * The AI's evaluation cache (or null), e.g. for its hit rate.
+     */
+    public EvaluationCache getEvaluationCache() {
+        return this.evaluationCache;
+    }
+
     public int getCurrentPlayerColour() {
         return this.currentPlayerColour;
     }
@@ -142,11 +339,32 @@ public class GameController implements IdleObject {
         this.notifyGameUndoRedoListeners();
         this.view.setAIIsPlaying(true);
         ReversiNode n = new ReversiNode(this.board.getState(), this.currentPlayerColour);
-        AIPlayer tmp = new AIPlayer(this, n, this.maxDepth, this.algorithm, this.evalMethod, this.waitFor);
+        AIPlayer tmp = new AIPlayer(this, n, this.maxDepth, this.algorithm, this.evalMethod, this.waitFor, this.searchTime);
+        tmp.setTranspositionTable(this.getSearchTranspositionTable());
+        tmp.setMoveOrdering(this.moveOrdering);
+        tmp.setAspirationWindow(this.aspirationWindow);
+        tmp.setEndgameSolver(this.endgameEmpties, this.endgameMode);
+        tmp.setForkJoinPool(this.pool);
+        tmp.setPlayoutBudget(this.playoutBudget);
+        tmp.setNodePool(this.nodePool);
+        tmp.setEvaluationCache(this.evaluationCache);
         tmp.start();
 
     }
 
+    //The table set by setTranspositionTableSize(), or the default one when
+    //the algorithm needs a table and none was set:
+    private TranspositionTable getSearchTranspositionTable() {
+        if ((this.transpositionTable != null)
+                || ((this.algorithm != MiniMax.SearchAlgorithm.MTDF) && (this.algorithm != MiniMax.SearchAlgorithm.LAZY_SMP))) {
+            return this.transpositionTable;
+        }
+        if (this.defaultTranspositionTable == null) {
+            this.defaultTranspositionTable = new TranspositionTable(MTDF.DEFAULT_MEMORY_MB);
+        }
+        return this.defaultTranspositionTable;
+    }
+
     public void AIEndMove(ReversiNode n) throws InvalidMoveException {
         Move next = (Move)n.getNextMove();
         if (next != null) {
@@ -172,7 +390,7 @@ public class GameController implements IdleObject {
                     this.changePlayer();
                     this.view.notifyGameChanged(this);
 
-                    if((this.board.getValidMoves(currentPlayerColour).size() == 0)&&(!this.board.isTheGameOver())){
+                    if((this.board.mobility(currentPlayerColour) == 0)&&(!this.board.isTheGameOver())){
                         this.skipTurn();
                     }
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi;
+
+/**
+ * Walks the squares of a move mask (see State.legalMovesMask) in the same
+ * row by row order as State.getValidMoves, without allocating a Move per
+ * square. An instance can be reused by calling reset().
+ */
+public class MoveIterator {
+
+    private long remaining;
+    private int square;
+
+    public MoveIterator() {
+        this.reset(0);
+    }
+
+    public MoveIterator(long moves) {
+        this.reset(moves);
+    }
+
+    public void reset(long moves) {
+        this.remaining = moves;
+        this.square = -1;
+    }
+
+    public boolean hasNext() {
+        return (this.remaining != 0);
+    }
+
+    public int next() {
+        this.square = Long.numberOfTrailingZeros(this.remaining);
+        this.remaining &= this.remaining - 1;
+        return this.square;
+    }
+
+    public int getX() {
+        return BitBoard.getX(this.square);
+    }
+
+    public int getY() {
+        return BitBoard.getY(this.square);
+    }
+}
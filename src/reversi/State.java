@@ -27,85 +27,84 @@ import java.util.Vector;
 
 public class State {
 
-    private int[][] state;
+    // One bit per square, see BitBoard for the mapping.
+    private long black;
+    private long white;
+    //Zobrist hash of the discs, kept up to date by every change:
+    private long hash;
     private int dimension;
 
     public State(){
         this.dimension = Utils.BOARD_SIZE;
-        state = new int[this.dimension][this.dimension];
-        
-        this.state[3][4] = Utils.BLACK;
-        this.state[4][3] = Utils.BLACK;
-        this.state[3][3] = Utils.WHITE;
-        this.state[4][4] = Utils.WHITE;       
+
+        this.set(3, 4, Utils.BLACK);
+        this.set(4, 3, Utils.BLACK);
+        this.set(3, 3, Utils.WHITE);
+        this.set(4, 4, Utils.WHITE);
     }
 
     public State(int dimension){
+        if(dimension != Utils.BOARD_SIZE){
+            throw new IllegalArgumentException("Unsupported board dimension: " + dimension);
+        }
         this.dimension = dimension;
-        state = new int[this.dimension][this.dimension];
 
         //this.fillBoardDummy2();
     }
 
     public State(State original){
         this.dimension = original.getDimension();
-        state = new int[this.dimension][this.dimension];
-        for(int i=0; i<this.dimension; i++){
-            for(int j=0; j<this.dimension; j++){
-                this.state[i][j] = original.get(i, j);
-            }
-        }
+        this.black = original.black;
+        this.white = original.white;
+        this.hash = original.hash;
     }
 
     //Used for tests:
     public void fillBoardDummy(){
         for (int i = 0; i < this.dimension; i++) {
             for (int j = 0; j < this.dimension; j++) {
-                double rand = Math.random();
                 int val = -1;
-                //if(rand>=0.5){val=1;}
-                //else{val=-1;}
                 if((i!=7)||(j!=0)){
-                    this.state[i][j] = val;
+                    this.set(i, j, val);
                 }
             }
         }
-        this.state[3][4]=1;
+        this.set(3, 4, 1);
     }
 
     //Used for tests:
     public void fillBoardDummy2(){
-        for (int i = 0; i < state.length; i++) {
-            for (int j = 0; j < state.length; j++) {
-                this.state[i][j] = Utils.BLACK;
+        for (int i = 0; i < this.dimension; i++) {
+            for (int j = 0; j < this.dimension; j++) {
+                this.set(i, j, Utils.BLACK);
             }
         }
 
-        for (int i = 0; i < state.length; i++) {
-            this.state[0][i]=Utils.WHITE;
-            this.state[i][0]=Utils.WHITE;
+        for (int i = 0; i < this.dimension; i++) {
+            this.set(0, i, Utils.WHITE);
+            this.set(i, 0, Utils.WHITE);
             if(i<5){
-                this.state[i][7]=Utils.WHITE;
-                this.state[7][i]=Utils.WHITE;
+                this.set(i, 7, Utils.WHITE);
+                this.set(7, i, Utils.WHITE);
             }
         }
-        this.state[2][3]=Utils.WHITE;
-        this.state[2][4]=Utils.WHITE;
-        this.state[2][5]=Utils.WHITE;
-        this.state[4][2]=Utils.WHITE;
-        this.state[5][2]=Utils.WHITE;
-        this.state[6][1]=Utils.WHITE;
-        this.state[6][3]=Utils.WHITE;
-        this.state[6][4]=Utils.WHITE;
-        this.state[6][5]=Utils.WHITE;
-        this.state[1][6]=Utils.WHITE;
-        this.state[3][6]=Utils.WHITE;
-        this.state[4][6]=Utils.WHITE;
-        this.state[5][6]=Utils.WHITE;
-        this.state[6][6]=Utils.WHITE;
-
-        this.state[5][7]=Utils.EMPTY;
-        this.state[7][7]=Utils.EMPTY;
+        this.set(2, 3, Utils.WHITE);
+        this.set(2, 4, Utils.WHITE);
+        this.set(2, 5, Utils.WHITE);
+        this.set(4, 2, Utils.WHITE);
+        this.set(5, 2, Utils.WHITE);
+        this.set(6, 1, Utils.WHITE);
+        this.set(6, 3, Utils.WHITE);
+        this.set(6, 4, Utils.WHITE);
+        this.set(6, 5, Utils.WHITE);
+        this.set(1, 6, Utils.WHITE);
+        this.set(3, 6, Utils.WHITE);
+        this.set(4, 6, Utils.WHITE);
+        this.set(5, 6, Utils.WHITE);
+        this.set(6, 6, Utils.WHITE);
+
+        this.set(5, 7, Utils.EMPTY);
+        this.set(7, 7, Utils.EMPTY);
 
 
     }
@@ -114,550 +113,183 @@ public class State {
         return this.dimension;
     }
 
-    public int get(int x, int y){
-        return this.state[x][y];
-    }
-
-    public void set(int x, int y, int value){
-        this.state[x][y] = value;
+    public long getDiscs(int colour){
+        if(colour == Utils.BLACK){
+            return this.black;
+        }
+        return this.white;
     }
 
-    public void put(int x, int y, int value){
-        this.state[x][y] = value;
-        this.flip(x, y, value);
+    /**
+     * The Zobrist hash of the discs on the board (see Zobrist).
+     */
+    public long getHash(){
+        return this.hash;
     }
 
-    public Point getScore(){
-        int totalBlack = 0;
-        int totalWhite = 0;
-        int val = 0;
-        for (int i = 0; i < this.dimension; i++) {
-            for (int j = 0; j < this.dimension; j++) {
-                val = this.state[i][j];
-                if (val == Utils.BLACK) {
-                    totalBlack++;
-                } else if (val == Utils.WHITE) {
-                    totalWhite++;
-                }
-            }
-        }
-        return new Point(totalBlack, totalWhite);
+    /**
+     * The Zobrist hash of this position with the given colour to move.
+     */
+    public long getHash(int colourToMove){
+        return this.hash ^ Zobrist.sideKey(colourToMove);
     }
 
-    public boolean checkGameOver() {
-        int black = 0;
-        int white = 0;
-        int empty = 0;
-        int legalBlack = 0;
-        int legalWhite = 0;
-        int val = 0;
-        for (int i = 0; i < this.dimension; i++) {
-            for (int j = 0; j < this.dimension; j++) {
-                val = this.state[i][j];
-                if (val == Utils.BLACK) {
-                    black++;
-                } else if (val == Utils.WHITE) {
-                    white++;
-                }
-                else{
-                    empty++;
-                }
-                if (checkPosition(i, j, Utils.BLACK)) {
-                    legalBlack++;
-                }
-                if (checkPosition(i, j, Utils.WHITE)) {
-                    legalWhite++;
-                }
-            }
+    public int get(int x, int y){
+        long m = BitBoard.mask(x, y);
+        if((this.black & m) != 0){
+            return Utils.BLACK;
         }
-        if( (empty==0) || (black==0) || (white==0) || (      (legalBlack==0)&&(legalWhite==0)      ) ){
-            return true;
+        if((this.white & m) != 0){
+            return Utils.WHITE;
         }
-        return false;
+        return Utils.EMPTY;
     }
 
-    public Vector<Move> getValidMoves(int playerColour) {
-        int val = 0;
-        Vector<Move> results = new Vector<Move>();
-        for (int j = 0; j < this.dimension; j++) {
-            for (int i = 0; i < this.dimension; i++) {
-                if (checkPosition(i, j, playerColour)) {
-                    Move m = new Move(i, j, playerColour);
-                    results.add(m);
-                }
-            }
+    public void set(int x, int y, int value){
+        int square = BitBoard.square(x, y);
+        long m = 1L << square;
+        if((this.black & m) != 0){
+            this.hash ^= Zobrist.BLACK_KEYS[square];
+        }else if((this.white & m) != 0){
+            this.hash ^= Zobrist.WHITE_KEYS[square];
         }
-        return results;
-    }
-
-    public State getChildState(Move move){
-        if(checkPosition(move.getX(), move.getY(), move.getColour())){
-            State child = new State(this);
-            child.put(move.getX(), move.getY(), move.getColour());
-            return child;
+        this.black &= ~m;
+        this.white &= ~m;
+        if(value == Utils.BLACK){
+            this.black |= m;
+            this.hash ^= Zobrist.BLACK_KEYS[square];
+        }else if(value == Utils.WHITE){
+            this.white |= m;
+            this.hash ^= Zobrist.WHITE_KEYS[square];
         }
-        return null;
     }
 
-    // <editor-fold defaultstate="collapsed" desc="Private methods to check if a position is valid.">
-    private boolean checkLeftUp(int x, int y, int colour) {
-        if ((y == 0) || (x == 0)) {
-            return false;
-        }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x - 1][y - 1] != opponentsColour) {
-            return false;
-        } else {
-            int j = y - 2;
-            int i = x - 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j >= 0) && (i >= 0) && (contiguous)) {
-                value = this.state[i][j];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    j--;
-                    i--;
-                }
-            }
-            return false;
-        }
-
+    public void put(int x, int y, int value){
+        this.set(x, y, value);
+        this.flip(x, y, value);
     }
 
-    private boolean checkLeftDown(int x, int y, int colour) {
-        int max = this.dimension - 1;
-        if ((y == max) || (x == 0)) {
-            return false;
-        }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x - 1][y + 1] != opponentsColour) {
-            return false;
-        } else {
-            int j = y + 2;
-            int i = x - 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j <= max) && (i >= 0) && (contiguous)) {
-                value = this.state[i][j];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    j++;
-                    i--;
-                }
-            }
-            return false;
-        }
-
+    public Point getScore(){
+        return new Point(Long.bitCount(this.black), Long.bitCount(this.white));
     }
 
-    private boolean checkRightUp(int x, int y, int colour) {
-        int max = this.dimension - 1;
-        if ((y == 0) || (x == max)) {
-            return false;
-        }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x + 1][y - 1] != opponentsColour) {
-            return false;
-        } else {
-            int j = y - 2;
-            int i = x + 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j >= 0) && (i <= max) && (contiguous)) {
-                value = this.state[i][j];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    j--;
-                    i++;
-                }
-            }
+    public boolean checkGameOver() {
+        //A full board or a colour without discs leaves no legal moves either,
+        //so it is enough to look for the first legal move of each side:
+        if (BitBoard.hasLegalMove(this.black, this.white)) {
             return false;
         }
-
+        return !BitBoard.hasLegalMove(this.white, this.black);
     }
 
-    private boolean checkRightDown(int x, int y, int colour) {
-        int max = this.dimension - 1;
-        if ((y == max) || (x == max)) {
+    /**
+     * Same as checkGameOver() for callers that already know the legal moves
+     * mask of one of the players.
+     */
+    public boolean checkGameOver(int colour, long legalMoves) {
+        if (legalMoves != 0) {
             return false;
         }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x + 1][y + 1] != opponentsColour) {
-            return false;
-        } else {
-            int j = y + 2;
-            int i = x + 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j <= max) && (i <= max) && (contiguous)) {
-                value = this.state[i][j];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    j++;
-                    i++;
-                }
-            }
-            return false;
-        }
-
+        int opponent = Utils.getOpponentsColour(colour);
+        return !BitBoard.hasLegalMove(this.getDiscs(opponent), this.getDiscs(colour));
     }
 
-    private boolean checkUp(int x, int y, int colour) {
-        if (y == 0) {
-            return false;
-        }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x][y - 1] != opponentsColour) {
-            return false;
-        } else {
-            int j = y - 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j >= 0) && (contiguous)) {
-                value = this.state[x][j];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    j--;
-                }
-            }
-            return false;
-        }
-
+    public long legalMovesMask(int colour) {
+        return BitBoard.legalMoves(this.getDiscs(colour), this.getDiscs(Utils.getOpponentsColour(colour)));
     }
 
-    private boolean checkDown(int x, int y, int colour) {
-        int max = this.dimension - 1;
-        if (y == max) {
-            return false;
-        }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x][y + 1] != opponentsColour) {
-            return false;
-        } else {
-            int j = y + 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j <= max) && (contiguous)) {
-                value = this.state[x][j];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    j++;
-                }
-            }
-            return false;
-        }
-
+    public int mobility(int colour) {
+        return Long.bitCount(this.legalMovesMask(colour));
     }
 
-    private boolean checkLeft(int x, int y, int colour) {
-        if (x == 0) {
-            return false;
-        }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x - 1][y] != opponentsColour) {
-            return false;
+    /**
+     * Places a disc of the given colour on a square (see BitBoard) that must
+     * be a legal move and returns the mask of the flipped discs, which is
+     * all that undoMove() needs to restore the previous position.
+     */
+    public long makeMove(int square, int colour) {
+        long placed = 1L << square;
+        long flipped;
+        if (colour == Utils.BLACK) {
+            flipped = BitBoard.flips(this.black, this.white, square);
+            this.black |= flipped | placed;
+            this.white &= ~flipped;
         } else {
-            int i = x - 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((i >= 0) && (contiguous)) {
-                value = this.state[i][y];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    i--;
-                }
-            }
-            return false;
+            flipped = BitBoard.flips(this.white, this.black, square);
+            this.white |= flipped | placed;
+            this.black &= ~flipped;
         }
-
+        this.hash ^= Zobrist.key(colour, square) ^ Zobrist.flipKeys(flipped);
+        return flipped;
     }
 
-    private boolean checkRight(int x, int y, int colour) {
-        int max = this.dimension - 1;
-        if (x == max) {
-            return false;
-        }
-
-        int opponentsColour = Utils.getOpponentsColour(colour);
-
-        if (this.state[x + 1][y] != opponentsColour) {
-            return false;
+    public void undoMove(int square, int colour, long flipped) {
+        long placed = 1L << square;
+        if (colour == Utils.BLACK) {
+            this.black &= ~(flipped | placed);
+            this.white |= flipped;
         } else {
-            int i = x + 2;
-            int value = 0;
-            boolean contiguous = true;
-            while ((i <= max) && (contiguous)) {
-                value = this.state[i][y];
-                if (value != opponentsColour) {
-                    contiguous = false;
-                    if (value == colour) {
-                        return true;
-                    }
-                } else {
-                    i++;
-                }
-            }
-            return false;
+            this.white &= ~(flipped | placed);
+            this.black |= flipped;
         }
-
+        this.hash ^= Zobrist.key(colour, square) ^ Zobrist.flipKeys(flipped);
     }
 
-    private boolean checkHorizontal(int x, int y, int colour) {
-        if (checkLeft(x, y, colour)) {
-            return true;
-        }
-        if (checkRight(x, y, colour)) {
-            return true;
-        }
-        return false;
-    }
-
-    private boolean checkVertical(int x, int y, int colour) {
-        if (checkUp(x, y, colour)) {
-            return true;
-        }
-        if (checkDown(x, y, colour)) {
-            return true;
+    public Vector<Move> getValidMoves(int playerColour) {
+        Vector<Move> results = new Vector<Move>();
+        MoveIterator it = new MoveIterator(this.legalMovesMask(playerColour));
+        while (it.hasNext()) {
+            it.next();
+            results.add(new Move(it.getX(), it.getY(), playerColour));
         }
-        return false;
+        return results;
     }
 
-    private boolean checkDiagonal(int x, int y, int colour) {
-        if (checkLeftUp(x, y, colour)) {
-            return true;
-        }
-        if (checkLeftDown(x, y, colour)) {
-            return true;
-        }
-        if (checkRightUp(x, y, colour)) {
-            return true;
-        }
-        if (checkRightDown(x, y, colour)) {
-            return true;
+    public State getChildState(Move move){
+        if(checkPosition(move.getX(), move.getY(), move.getColour())){
+            State child = new State(this);
+            child.put(move.getX(), move.getY(), move.getColour());
+            return child;
         }
-        return false;
+        return null;
     }
-    // </editor-fold>
 
     public boolean checkPosition(int x, int y, int colour) {
-        if (this.state[x][y] != Utils.EMPTY) {
+        long m = BitBoard.mask(x, y);
+        if (((this.black | this.white) & m) != 0) {
             return false;
         }
-        if (this.checkHorizontal(x, y, colour)) {
-            return true;
-        }
-        if (this.checkVertical(x, y, colour)) {
-            return true;
-        }
-        if (this.checkDiagonal(x, y, colour)) {
-            return true;
-        }
-        return false;
-    }
-
-    // <editor-fold defaultstate="collapsed" desc="Private methods to flip all the contiguous opponent's discs.">
-    private void tryFlipUp(int x, int y, int colour) {
-        if (this.checkUp(x, y, colour)) {
-            int i = y - 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((i >= 0) && (contiguous)) {
-                value = this.state[x][i];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[x][i] = colour;
-                    i--;
-                }
-            }
-        }
-    }
-
-    private void tryFlipDown(int x, int y, int colour) {
-        int max = this.dimension - 1;
-        if (this.checkDown(x, y, colour)) {
-            int i = y + 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((i <= max) && (contiguous)) {
-                value = this.state[x][i];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[x][i] = colour;
-                    i++;
-                }
-            }
-        }
-    }
-
-    private void tryFlipRight(int x, int y, int colour) {
-        int max = this.dimension - 1;
-        if (this.checkRight(x, y, colour)) {
-            int i = x + 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((i <= max) && (contiguous)) {
-                value = this.state[i][y];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[i][y] = colour;
-                    i++;
-                }
-            }
-        }
-    }
-
-    private void tryFlipLeft(int x, int y, int colour) {
-        if (this.checkLeft(x, y, colour)) {
-            int i = x - 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((i >= 0) && (contiguous)) {
-                value = this.state[i][y];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[i][y] = colour;
-                    i--;
-                }
-            }
-        }
-    }
-
-    private void tryFlipLeftUp(int x, int y, int colour) {
-        if (this.checkLeftUp(x, y, colour)) {
-            int j = y - 1;
-            int i = x - 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j >= 0) && (i >= 0) && (contiguous)) {
-                value = this.state[i][j];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[i][j] = colour;
-                    j--;
-                    i--;
-                }
-            }
-        }
+        long own = this.getDiscs(colour);
+        long opp = this.getDiscs(Utils.getOpponentsColour(colour));
+        return BitBoard.flips(own, opp, BitBoard.square(x, y)) != 0;
     }
 
-    private void tryFlipLeftDown(int x, int y, int colour) {
-        if (this.checkLeftDown(x, y, colour)) {
-            int max = this.dimension - 1;
-            int j = y + 1;
-            int i = x - 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j <= max) && (i >= 0) && (contiguous)) {
-                value = this.state[i][j];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[i][j] = colour;
-                    j++;
-                    i--;
-                }
-            }
-        }
-    }
-
-    private void tryFlipRightUp(int x, int y, int colour) {
-        if (this.checkRightUp(x, y, colour)) {
-            int max = this.dimension - 1;
-            int j = y - 1;
-            int i = x + 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j >= 0) && (i <= max) && (contiguous)) {
-                value = this.state[i][j];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[i][j] = colour;
-                    j--;
-                    i++;
-                }
-            }
-        }
-    }
-
-    private void tryFlipRightDown(int x, int y, int colour) {
-        if (this.checkRightDown(x, y, colour)) {
-            int max = this.dimension - 1;
-            int j = y + 1;
-            int i = x + 1;
-            int value = 0;
-            boolean contiguous = true;
-            while ((j <= max) && (i <= max) && (contiguous)) {
-                value = this.state[i][j];
-                if (value == colour) {
-                    contiguous = false;
-                } else {
-                    this.state[i][j] = colour;
-                    j++;
-                    i++;
-                }
-            }
+    public void flip(int x, int y, int colour) {
+        long own = this.getDiscs(colour);
+        long opp = this.getDiscs(Utils.getOpponentsColour(colour));
+        long flipped = BitBoard.flips(own, opp, BitBoard.square(x, y));
+        if(colour == Utils.BLACK){
+            this.black |= flipped;
+            this.white &= ~flipped;
+        }else{
+            this.white |= flipped;
+            this.black &= ~flipped;
+        }
+        this.hash ^= Zobrist.flipKeys(flipped);
+    }
+
+    @Override
+    public boolean equals(Object obj){
+        if( ! (obj instanceof State) ){
+            return false;
         }
+        State s = (State) obj;
+        return (this.black == s.black) && (this.white == s.white);
     }
-    // </editor-fold>
 
-    public void flip(int x, int y, int colour) {
-        this.tryFlipLeft(x, y, colour);
-        this.tryFlipRight(x, y, colour);
-        this.tryFlipUp(x, y, colour);
-        this.tryFlipDown(x, y, colour);
-        this.tryFlipLeftUp(x, y, colour);
-        this.tryFlipLeftDown(x, y, colour);
-        this.tryFlipRightUp(x, y, colour);
-        this.tryFlipRightDown(x, y, colour);
+    @Override
+    public int hashCode() {
+        return (int) (this.hash ^ (this.hash >>> 32));
     }
 
     public void print(PrintStream out) {
@@ -667,7 +299,7 @@ public class State {
         int totalBlack = 0;
         for (int j = 0; j < this.dimension; j++) {
             for (int i = 0; i < this.dimension; i++) {
-                val = this.state[i][j];
+                val = this.get(i, j);
                 if (val == Utils.BLACK) {
                     c = " b  | ";
                     totalBlack++;
@@ -30,6 +30,13 @@ public class Utils {
     public static final int EMPTY = 0;
     public static final int MAX_DEPTH = 4;
     public static final long WAIT_FOR_MILLIS = 250;
+    //0 searches to the maximum depth regardless of the time it takes:
+    public static final long SEARCH_TIME_MILLIS = 0;
+    //The highest depth offered, the "expert" level:
+    public static final int EXPERT_DEPTH = 6;
+    //At the expert level the AI plays perfectly from this many empty squares
+    //on (0 never); the lower levels keep searching to the end:
+    public static final int ENDGAME_EMPTIES = 14;
 
     public static int getOpponentsColour(int colour) {
         if (colour == Utils.BLACK) {
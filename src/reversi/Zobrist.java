@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi;
+
+import java.util.Random;
+
+/**
+ * Random keys for 64-bit Zobrist position hashes: a position's hash is the
+ * XOR of the keys of its discs, plus WHITE_TO_MOVE when White is to play.
+ * The keys come from a fixed seed so hashes are the same on every run and
+ * can be stored.
+ */
+public class Zobrist {
+
+    private static final long SEED = 0x5EED2010L;
+
+    public static final long[] BLACK_KEYS = new long[64];
+    public static final long[] WHITE_KEYS = new long[64];
+    //BLACK_KEYS[i] ^ WHITE_KEYS[i], i.e. the change when the disc on i flips:
+    public static final long[] FLIP_KEYS = new long[64];
+    public static final long WHITE_TO_MOVE;
+
+    static {
+        Random r = new Random(SEED);
+        for (int i = 0; i < 64; i++) {
+            BLACK_KEYS[i] = r.nextLong();
+            WHITE_KEYS[i] = r.nextLong();
+            FLIP_KEYS[i] = BLACK_KEYS[i] ^ WHITE_KEYS[i];
+        }
+        WHITE_TO_MOVE = r.nextLong();
+    }
+
+    public static long key(int colour, int square) {
+        if (colour == Utils.BLACK) {
+            return BLACK_KEYS[square];
+        }
+        return WHITE_KEYS[square];
+    }
+
+    public static long flipKeys(long flipped) {
+        long h = 0;
+        while (flipped != 0) {
+            h ^= FLIP_KEYS[Long.numberOfTrailingZeros(flipped)];
+            flipped &= flipped - 1;
+        }
+        return h;
+    }
+
+    public static long sideKey(int colourToMove) {
+        if (colourToMove == Utils.WHITE) {
+            return WHITE_TO_MOVE;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi.ai;
+
+import ai.Deadline;
+import reversi.BitBoard;
+import reversi.Move;
+import reversi.State;
+import reversi.Utils;
+
+/**
+ * Solves the last moves of a game exactly, searching every line to the end
+ * of the game instead of evaluating positions. The score of a finished game
+ * is the disc difference for the player to move; in WIN_LOSS_DRAW mode only
+ * its sign (1, 0, -1) is searched for, which is much faster.
+ * <p>
+ * The search works on the two disc masks directly. The empty squares are
+ * kept in a linked list (ordered corners first, X squares last) that moves
+ * are taken out of and put back in, and near the end the moves are tried in
+ * the board quadrants with an odd number of empty squares first (parity).
+ * With more empty squares left the moves that leave the opponent the fewest
+ * replies are tried first (fastest-first). A line is cut as soon as the
+ * opponent's stable discs (see Stability) keep its score from beating alpha.
+ *
+ * @author cyberpython
+ */
+public class EndgameSolver {
+
+    public enum Mode {
+        WIN_LOSS_DRAW, EXACT
+    }
+
+    /** Above this many empty squares the moves are ordered fastest-first */
+    public static final int FASTEST_FIRST_EMPTIES = 7;
+    /** From this many empty squares on the stable discs bound the score */
+    public static final int STABILITY_EMPTIES = 3;
+    private static final int SQUARES = 64;
+    private static final int HEAD = SQUARES;
+    //The order the empty squares are kept in, best squares first:
+    private static final int[] SQUARE_ORDER = {
+        0, 7, 56, 63,
+        2, 5, 16, 23, 40, 47, 58, 61,
+        3, 4, 24, 31, 32, 39, 59, 60,
+        18, 21, 42, 45,
+        19, 20, 26, 29, 34, 37, 43, 44,
+        10, 11, 12, 13, 17, 22, 25, 30, 33, 38, 41, 46, 50, 51, 52, 53,
+        1, 6, 8, 15, 48, 55, 57, 62,
+        9, 14, 49, 54,
+        27, 28, 35, 36
+    };
+    private static final int[] QUADRANT = new int[SQUARES];
+
+    static {
+        for (int sq = 0; sq < SQUARES; sq++) {
+            QUADRANT[sq] = 1 << ((BitBoard.getX(sq) >> 2) | ((BitBoard.getY(sq) >> 2) << 1));
+        }
+    }
+
+    private Mode mode;
+    private int[] next;
+    private int[] prev;
+    private int parity;
+    private int[][] moves;
+    private int[][] scores;
+    private int bestMove;
+    private long nodeCount;
+    private Deadline deadline;
+    private boolean aborted;
+
+    public EndgameSolver(Mode mode) {
+        this.mode = mode;
+        this.next = new int[SQUARES + 1];
+        this.prev = new int[SQUARES + 1];
+        this.moves = new int[SQUARES + 1][SQUARES];
+        this.scores = new int[SQUARES + 1][SQUARES];
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    public long getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Whether the last solve() gave up because its deadline expired.
+     */
+    public boolean isAborted() {
+        return this.aborted;
+    }
+
+    public static int countEmpties(State s) {
+        return SQUARES - Long.bitCount(s.getDiscs(Utils.BLACK) | s.getDiscs(Utils.WHITE));
+    }
+
+    /**
+     * Solves the position of n and stores the score and the best move in n.
+     * Returns false, leaving n as it was, if its player has no move.
+     */
+    public boolean solve(ReversiNode n) {
+        return this.solve(n, null);
+    }
+
+    /**
+     * Same as solve(n) but gives up when the deadline (if any) expires, in
+     * which case it also returns false and leaves n as it was.
+     */
+    public boolean solve(ReversiNode n, Deadline deadline) {
+        int player = n.getCurrentPlayer();
+        State s = n.getState();
+        this.deadline = deadline;
+        int score = this.solve(s.getDiscs(player), s.getDiscs(Utils.getOpponentsColour(player)));
+        this.deadline = null;
+        if ((this.aborted) || (this.bestMove < 0)) {
+            return false;
+        }
+        n.setValue(score);
+        n.setNextMove(new Move(BitBoard.getX(this.bestMove), BitBoard.getY(this.bestMove), player));
+        return true;
+    }
+
+    /**
+     * Solves the position where the player to move has the discs own and
+     * the opponent the discs opp. getBestMove() returns the square to play.
+     * The result means nothing if isAborted() is true afterwards.
+     */
+    public int solve(long own, long opp) {
+        this.bestMove = -1;
+        this.aborted = false;
+        int empties = this.initEmpties(own | opp);
+        int alpha;
+        int beta;
+        if (this.mode == Mode.WIN_LOSS_DRAW) {
+            alpha = -1;
+            beta = 1;
+        } else {
+            alpha = -SQUARES - 1;
+            beta = SQUARES + 1;
+        }
+        this.nodeCount++;
+        long legal = BitBoard.legalMoves(own, opp);
+        if (legal == 0) {
+            return this.result(this.search(own, opp, alpha, beta, empties));
+        }
+        int count = this.orderMoves(own, opp, legal, empties);
+        int[] list = this.moves[empties];
+        int best = -SQUARES - 1;
+        for (int i = 0; i < count; i++) {
+            int sq = list[i];
+            long flipped = BitBoard.flips(own, opp, sq);
+            this.remove(sq);
+            int value = -this.search(opp ^ flipped, own | flipped | (1L << sq), -beta, -alpha, empties - 1);
+            this.restore(sq);
+            if (this.aborted) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                this.bestMove = sq;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return this.result(best);
+    }
+
+    //The score as solve() returns it in the current mode:
+    private int result(int score) {
+        if (this.mode == Mode.WIN_LOSS_DRAW) {
+            return Integer.signum(score);
+        }
+        return score;
+    }
+
+    /**
+     * The square of the best move of the last solve(), or -1 if there was
+     * no legal move.
+     */
+    public int getBestMove() {
+        return this.bestMove;
+    }
+
+    private int search(long own, long opp, int alpha, int beta, int empties) {
+        this.nodeCount++;
+        if ((this.deadline != null) && (this.nodeCount % Deadline.CHECK_INTERVAL == 0) && (this.deadline.hasExpired())) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return 0;
+        }
+        if (empties == 0) {
+            return Long.bitCount(own) - Long.bitCount(opp);
+        }
+        if (empties == 1) {
+            return this.solveLastSquare(own, opp, this.next[HEAD]);
+        }
+        //The opponent's stable discs cap the score, possibly at alpha; only
+        //looked for when all of its discs being stable would be enough:
+        if ((empties >= STABILITY_EMPTIES) && (alpha >= SQUARES - 2 * Long.bitCount(opp))) {
+            int cap = SQUARES - 2 * Stability.count(opp, own);
+            if (cap <= alpha) {
+                return cap;
+            }
+        }
+        long legal = BitBoard.legalMoves(own, opp);
+        if (legal == 0) {
+            if (!BitBoard.hasLegalMove(opp, own)) {
+                return Long.bitCount(own) - Long.bitCount(opp);
+            }
+            return -this.search(opp, own, -beta, -alpha, empties);
+        }
+
+        int best = -SQUARES - 1;
+        if (empties > FASTEST_FIRST_EMPTIES) {
+            int count = this.orderMoves(own, opp, legal, empties);
+            int[] list = this.moves[empties];
+            for (int i = 0; i < count; i++) {
+                int sq = list[i];
+                long flipped = BitBoard.flips(own, opp, sq);
+                this.remove(sq);
+                int value = -this.search(opp ^ flipped, own | flipped | (1L << sq), -beta, -alpha, empties - 1);
+                this.restore(sq);
+                if (value > best) {
+                    best = value;
+                    if (value > alpha) {
+                        alpha = value;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        //Two passes over the empty squares, the odd quadrants first:
+        for (int pass = 0; pass < 2; pass++) {
+            int wanted = this.parity;
+            if (pass == 1) {
+                wanted = ~this.parity;
+            }
+            for (int sq = this.next[HEAD]; sq != HEAD; sq = this.next[sq]) {
+                if (((QUADRANT[sq] & wanted) == 0) || ((legal & (1L << sq)) == 0)) {
+                    continue;
+                }
+                long flipped = BitBoard.flips(own, opp, sq);
+                this.remove(sq);
+                int value = -this.search(opp ^ flipped, own | flipped | (1L << sq), -beta, -alpha, empties - 1);
+                this.restore(sq);
+                if (value > best) {
+                    best = value;
+                    if (value > alpha) {
+                        alpha = value;
+                        if (alpha >= beta) {
+                            return best;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    //One empty square left: whoever can play it does, without generating moves:
+    private int solveLastSquare(long own, long opp, int sq) {
+        int score = Long.bitCount(own) - Long.bitCount(opp);
+        long flipped = BitBoard.flips(own, opp, sq);
+        if (flipped != 0) {
+            return score + 2 * Long.bitCount(flipped) + 1;
+        }
+        flipped = BitBoard.flips(opp, own, sq);
+        if (flipped != 0) {
+            return score - 2 * Long.bitCount(flipped) - 1;
+        }
+        return score;
+    }
+
+    //Fills moves[empties] with the legal moves, the ones leaving the opponent
+    //the fewest replies first (ties in the order of the empty squares list):
+    private int orderMoves(long own, long opp, long legal, int empties) {
+        int[] list = this.moves[empties];
+        int[] score = this.scores[empties];
+        int count = 0;
+        for (int sq = this.next[HEAD]; sq != HEAD; sq = this.next[sq]) {
+            if ((legal & (1L << sq)) == 0) {
+                continue;
+            }
+            long flipped = BitBoard.flips(own, opp, sq);
+            int replies = Long.bitCount(BitBoard.legalMoves(opp ^ flipped, own | flipped | (1L << sq)));
+            int j = count - 1;
+            while ((j >= 0) && (score[j] > replies)) {
+                list[j + 1] = list[j];
+                score[j + 1] = score[j];
+                j--;
+            }
+            list[j + 1] = sq;
+            score[j + 1] = replies;
+            count++;
+        }
+        return count;
+    }
+
+    private int initEmpties(long discs) {
+        int last = HEAD;
+        int count = 0;
+        this.parity = 0;
+        for (int i = 0; i < SQUARE_ORDER.length; i++) {
+            int sq = SQUARE_ORDER[i];
+            if ((discs & (1L << sq)) == 0) {
+                this.next[last] = sq;
+                this.prev[sq] = last;
+                last = sq;
+                this.parity ^= QUADRANT[sq];
+                count++;
+            }
+        }
+        this.next[last] = HEAD;
+        this.prev[HEAD] = last;
+        return count;
+    }
+
+    private void remove(int sq) {
+        this.next[this.prev[sq]] = this.next[sq];
+        this.prev[this.next[sq]] = this.prev[sq];
+        this.parity ^= QUADRANT[sq];
+    }
+
+    private void restore(int sq) {
+        this.next[this.prev[sq]] = sq;
+        this.prev[this.next[sq]] = sq;
+        this.parity ^= QUADRANT[sq];
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi.ai;
+
+import reversi.State;
+import reversi.Utils;
+
+/**
+ * Evaluation features of a ReversiSearchBoard position, kept up to date by
+ * its makeMove() and undoMove() so that an evaluation does not need to scan
+ * the board. The counts are black minus white.
+ *
+ * @author cyberpython
+ */
+class EvaluationFeatures {
+
+    private static final long CORNERS = 0x8100000000000081L;
+    //The edge squares without the corners:
+    private static final long SIDES = 0x7e8181818181817eL;
+
+    private int discs;
+    private int sides;
+    private int corners;
+
+    public EvaluationFeatures(State s) {
+        long black = s.getDiscs(Utils.BLACK);
+        long white = s.getDiscs(Utils.WHITE);
+        this.discs = Long.bitCount(black) - Long.bitCount(white);
+        this.sides = Long.bitCount(black & SIDES) - Long.bitCount(white & SIDES);
+        this.corners = Long.bitCount(black & CORNERS) - Long.bitCount(white & CORNERS);
+    }
+
+    /**
+     * Difference in discs, side discs or corners for the given player.
+     */
+    public int getDiscs(int player) {
+        return (player == Utils.BLACK) ? this.discs : -this.discs;
+    }
+
+    public int getSides(int player) {
+        return (player == Utils.BLACK) ? this.sides : -this.sides;
+    }
+
+    public int getCorners(int player) {
+        return (player == Utils.BLACK) ? this.corners : -this.corners;
+    }
+
+    public void makeMove(int square, long flipped, int colour) {
+        this.update(square, flipped, colour, 1);
+    }
+
+    public void undoMove(int square, long flipped, int colour) {
+        this.update(square, flipped, colour, -1);
+    }
+
+    //Adds (direction 1) or removes (-1) the disc placed on square and the
+    //change of colour of the flipped ones:
+    private void update(int square, long flipped, int colour, int direction) {
+        int sign = (colour == Utils.BLACK) ? direction : -direction;
+        long placed = 1L << square;
+        this.discs += sign * (1 + 2 * Long.bitCount(flipped));
+        this.sides += sign * (Long.bitCount(placed & SIDES) + 2 * Long.bitCount(flipped & SIDES));
+        this.corners += sign * Long.bitCount(placed & CORNERS);
+    }
+}
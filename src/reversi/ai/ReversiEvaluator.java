@@ -23,6 +23,8 @@ package reversi.ai;
 
 import ai.Evaluator;
 import ai.Node;
+import ai.SearchBoard;
+import reversi.BitBoard;
 import reversi.State;
 import reversi.Utils;
 
@@ -33,9 +35,61 @@ import reversi.Utils;
 public class ReversiEvaluator extends Evaluator{
 
     public enum EvaluationMethod {
-        VALID_MOVES_AND_TOTAL_SCORE, VALID_MOVES_AND_SIDES_COUNT, VALID_MOVES_AND_CORNERS
+        VALID_MOVES_AND_TOTAL_SCORE, VALID_MOVES_AND_SIDES_COUNT, VALID_MOVES_AND_CORNERS, VALID_MOVES_AND_WEIGHTED_SQUARES, VALID_MOVES_AND_STABILITY,
+        VALID_MOVES_AND_FRONTIER, VALID_MOVES_AND_POTENTIAL_MOBILITY, WEIGHTED_MOBILITY
     }
 
+     private static final long CORNERS = 0x8100000000000081L;
+     private static final long SIDES = 0x7e8181818181817eL;
+     //Value of a stable disc against a move for VALID_MOVES_AND_STABILITY:
+     private static final int STABLE_DISC_WEIGHT = 4;
+     //Weights of the features combined by WEIGHTED_MOBILITY:
+     private static final int MOBILITY_WEIGHT = 3;
+     private static final int FRONTIER_WEIGHT = 2;
+     private static final int POTENTIAL_MOBILITY_WEIGHT = 1;
+     private static final int CORNER_WEIGHT = 20;
+     //Value of a disc on each square for VALID_MOVES_AND_WEIGHTED_SQUARES;
+     //the C and X squares only count while the corner next to them is empty:
+     private static final int[] SQUARE_WEIGHTS = {
+         20, -4,  2,  1,  1,  2, -4, 20,
+         -4, -8, -1, -2, -2, -1, -8, -4,
+          2, -1,  1,  0,  0,  1, -1,  2,
+          1, -2,  0,  0,  0,  0, -2,  1,
+          1, -2,  0,  0,  0,  0, -2,  1,
+          2, -1,  1,  0,  0,  1, -1,  2,
+         -4, -8, -1, -2, -2, -1, -8, -4,
+         20, -4,  2,  1,  1,  2, -4, 20
+     };
+     //The squares of each non-zero weight, so that the discs on them are
+     //counted at once:
+     private static final int[] WEIGHTS;
+     private static final long[] WEIGHT_MASKS;
+
+     static {
+         int[] weights = new int[SQUARE_WEIGHTS.length];
+         long[] masks = new long[SQUARE_WEIGHTS.length];
+         int count = 0;
+         for (int square = 0; square < SQUARE_WEIGHTS.length; square++) {
+             int weight = SQUARE_WEIGHTS[square];
+             if (weight == 0) {
+                 continue;
+             }
+             int i = 0;
+             while ((i < count) && (weights[i] != weight)) {
+                 i++;
+             }
+             if (i == count) {
+                 weights[i] = weight;
+                 count++;
+             }
+             masks[i] |= 1L << square;
+         }
+         WEIGHTS = new int[count];
+         WEIGHT_MASKS = new long[count];
+         System.arraycopy(weights, 0, WEIGHTS, 0, count);
+         System.arraycopy(masks, 0, WEIGHT_MASKS, 0, count);
+     }
+
      private int player;
      private EvaluationMethod evalMethod;
 
@@ -54,12 +108,45 @@ public class ReversiEvaluator extends Evaluator{
      *
      */
 
+    /**
+     * The same for evaluators of the same method and player.
+     */
+    @Override
+    public long getId() {
+        return (evalMethod.ordinal() << 2) | ((player == Utils.BLACK) ? 1 : 2);
+    }
+
     public int evaluate(Node n) {
-        
+        ReversiNode node = (ReversiNode) n;
+        return evaluate(node.getState());
+    }
+
+    /**
+     * The same values as evaluate(Node), with the board features read from
+     * the accumulators the board updates as moves are made and undone where
+     * the method uses them. The board only starts keeping them on the first
+     * call of getFeatures(), so the other methods do not pay for them.
+     */
+    public int evaluate(SearchBoard b) {
+        ReversiSearchBoard board = (ReversiSearchBoard) b;
+        State s = board.getState();
+
         int value;
+        if (evalMethod == EvaluationMethod.VALID_MOVES_AND_TOTAL_SCORE) {
+            value = validMovesCount(s, player) + board.getFeatures().getDiscs(player);
+        } else if (evalMethod == EvaluationMethod.VALID_MOVES_AND_SIDES_COUNT) {
+            value = validMovesCount(s, player) + board.getFeatures().getSides(player);
+        } else if (evalMethod == EvaluationMethod.VALID_MOVES_AND_CORNERS) {
+            value = validMovesCount(s, player) + board.getFeatures().getCorners(player) * 100;
+        } else {
+            value = evaluate(s);
+        }
+        return value;
+    }
 
-        ReversiNode node = (ReversiNode) n;
-        State s = node.getState();
+    private int evaluate(State s) {
+        
+        int value;
 
         //Used for tests:
         /*value = (int) Math.round(Math.random() * 10);
@@ -71,6 +158,17 @@ public class ReversiEvaluator extends Evaluator{
             value = validMovesCount(s, player) + totalScore(s, player);
         } else if (evalMethod == EvaluationMethod.VALID_MOVES_AND_SIDES_COUNT) {
             value = validMovesCount(s, player)+ sidesCount(s, player);
+        } else if (evalMethod == EvaluationMethod.VALID_MOVES_AND_WEIGHTED_SQUARES) {
+            value = validMovesCount(s, player) + weightedSquares(s, player);
+        } else if (evalMethod == EvaluationMethod.VALID_MOVES_AND_STABILITY) {
+            value = validMovesCount(s, player) + stableDiscs(s, player) * STABLE_DISC_WEIGHT;
+        } else if (evalMethod == EvaluationMethod.VALID_MOVES_AND_FRONTIER) {
+            value = validMovesCount(s, player) + frontier(s, player);
+        } else if (evalMethod == EvaluationMethod.VALID_MOVES_AND_POTENTIAL_MOBILITY) {
+            value = validMovesCount(s, player) + potentialMobility(s, player);
+        } else if (evalMethod == EvaluationMethod.WEIGHTED_MOBILITY) {
+            value = validMovesCount(s, player) * MOBILITY_WEIGHT + frontier(s, player) * FRONTIER_WEIGHT
+                    + potentialMobility(s, player) * POTENTIAL_MOBILITY_WEIGHT + cornerCount(s, player) * CORNER_WEIGHT;
         } else {
             value = validMovesCount(s, player) + cornerCount(s, player)*100;
         }
@@ -98,106 +196,68 @@ public class ReversiEvaluator extends Evaluator{
     }
 
     private int totalScore(State s, int player) {
-        int dimension = s.getDimension();
-        int opponent = Utils.getOpponentsColour(player);
-
-        int total = 0;
-        int val = 0;
-        for (int i = 0; i < dimension; i++) {
-            for (int j = 0; j < dimension; j++) {
-                val = s.get(i, j);
-                if (val == player) {
-                    total++;
-                } else if (val == opponent) {
-                    total--;
-                }
-            }
-        }
-
-        return total;
+        long own = s.getDiscs(player);
+        long opp = s.getDiscs(Utils.getOpponentsColour(player));
+        return Long.bitCount(own) - Long.bitCount(opp);
     }
 
     private int validMovesCount(State s, int player) {
-        int mobility = s.getValidMoves(player).size();
+        int mobility = s.mobility(player);
 
         return mobility;
     }
 
-    private int cornerCount(State s, int player) {
-        int total = 0;
-        int opponent = Utils.getOpponentsColour(player);
-        int val = 0;
-        int max = s.getDimension() - 1;
-
-        val = s.get(0, 0);
-        if (val == player) {
-            total++;
-        } else if (val == opponent) {
-            total--;
+    //Own weighted squares minus the opponent's:
+    private int weightedSquares(State s, int player) {
+        long own = s.getDiscs(player);
+        long opp = s.getDiscs(Utils.getOpponentsColour(player));
+        //The C and X squares are the neighbours of the corners:
+        long counted = ~BitBoard.neighbours((own | opp) & CORNERS);
+        own &= counted;
+        opp &= counted;
+        int score = 0;
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            score += WEIGHTS[i] * (Long.bitCount(own & WEIGHT_MASKS[i]) - Long.bitCount(opp & WEIGHT_MASKS[i]));
         }
+        return score;
+    }
 
-        val = s.get(max, 0);
-        if (val == player) {
-            total++;
-        } else if (val == opponent) {
-            total--;
-        }
+    //Own stable discs minus the opponent's:
+    private int stableDiscs(State s, int player) {
+        long own = s.getDiscs(player);
+        long opp = s.getDiscs(Utils.getOpponentsColour(player));
+        return Stability.count(own, opp) - Stability.count(opp, own);
+    }
 
-        val = s.get(0, max);
-        if (val == player) {
-            total++;
-        } else if (val == opponent) {
-            total--;
-        }
+    //The opponent's frontier discs (next to an empty square) minus ours,
+    //as frontier discs give the other side moves:
+    private int frontier(State s, int player) {
+        long own = s.getDiscs(player);
+        long opp = s.getDiscs(Utils.getOpponentsColour(player));
+        long nextToEmpty = BitBoard.neighbours(~(own | opp));
+        return Long.bitCount(opp & nextToEmpty) - Long.bitCount(own & nextToEmpty);
+    }
 
-        val = s.get(max, max);
-        if (val == player) {
-            total++;
-        } else if (val == opponent) {
-            total--;
-        }
+    //The empty squares next to opponent discs minus the ones next to ours,
+    //the squares that may become moves:
+    private int potentialMobility(State s, int player) {
+        long own = s.getDiscs(player);
+        long opp = s.getDiscs(Utils.getOpponentsColour(player));
+        long empty = ~(own | opp);
+        return Long.bitCount(empty & BitBoard.neighbours(opp)) - Long.bitCount(empty & BitBoard.neighbours(own));
+    }
 
-        return total;
+    private int cornerCount(State s, int player) {
+        long own = s.getDiscs(player);
+        long opp = s.getDiscs(Utils.getOpponentsColour(player));
+        return Long.bitCount(own & CORNERS) - Long.bitCount(opp & CORNERS);
     }
 
+    //The edge discs without the corners:
     private int sidesCount(State s, int player) {
-        int total = 0;
-        int opponent = Utils.getOpponentsColour(player);
-        int max = s.getDimension() - 1;
-        int val = 0;
-
-        for (int i = 1; i < max; i++) {
-
-            val = s.get(i, 0);
-            if (val == player) {
-                total++;
-            } else if (val == opponent) {
-                total--;
-            }
-
-            val = s.get(0, i);
-            if (val == player) {
-                total++;
-            } else if (val == opponent) {
-                total--;
-            }
-
-            val = s.get(i, max);
-            if (val == player) {
-                total++;
-            } else if (val == opponent) {
-                total--;
-            }
-
-            val = s.get(max, i);
-            if (val == player) {
-                total++;
-            } else if (val == opponent) {
-                total--;
-            }
-        }
-
-        return total;
+        long own = s.getDiscs(player);
+        long opp = s.getDiscs(Utils.getOpponentsColour(player));
+        return Long.bitCount(own & SIDES) - Long.bitCount(opp & SIDES);
     }
 
 }
@@ -22,9 +22,9 @@
 package reversi.ai;
 
 import ai.Node;
-import java.util.Iterator;
-import java.util.Vector;
+import ai.SearchBoard;
 import reversi.Move;
+import reversi.MoveIterator;
 import reversi.State;
 import reversi.Utils;
 
@@ -32,6 +32,10 @@ public class ReversiNode extends Node {
 
     private State state;
     private int currentPlayer;
+    private long legalMoves;
+    private boolean legalMovesKnown;
+    private boolean endGame;
+    private boolean endGameKnown;
 
     public ReversiNode(State s, int currentPlayer) {
         super();
@@ -46,6 +50,8 @@ public class ReversiNode extends Node {
     private void init(State s, int currentPlayer) {
         this.setState(s);
         this.setCurrentPlayer(currentPlayer);
+        this.legalMovesKnown = false;
+        this.endGameKnown = false;
     }
 
     public State getState() {
@@ -54,6 +60,8 @@ public class ReversiNode extends Node {
 
     public void setState(State state) {
         this.state = state;
+        this.legalMovesKnown = false;
+        this.endGameKnown = false;
     }
 
     public int getCurrentPlayer() {
@@ -62,19 +70,42 @@ public class ReversiNode extends Node {
 
     public void setCurrentPlayer(int currentPlayer) {
         this.currentPlayer = currentPlayer;
+        this.legalMovesKnown = false;
+        this.endGameKnown = false;
+    }
+
+    private long getLegalMoves() {
+        if (!this.legalMovesKnown) {
+            this.legalMoves = this.getState().legalMovesMask(this.currentPlayer);
+            this.legalMovesKnown = true;
+        }
+        return this.legalMoves;
     }
 
     public void expand() {
-        Vector<Move> availableMoves = this.getState().getValidMoves(this.currentPlayer);
-        for (Iterator<Move> it = availableMoves.iterator(); it.hasNext();) {
-            Move move = it.next();
-            ReversiNode child = new ReversiNode(this, move);
+        MoveIterator it = new MoveIterator(this.getLegalMoves());
+        while (it.hasNext()) {
+            it.next();
+            ReversiNode child = new ReversiNode(this, new Move(it.getX(), it.getY(), this.currentPlayer));
             this.addChild(child);
         }
         this.setExpanded(true);
     }
 
+    public SearchBoard createSearchBoard() {
+        return new ReversiSearchBoard(new State(this.getState()), this.currentPlayer);
+    }
+
+    public long getHash() {
+        return this.getState().getHash(this.currentPlayer);
+    }
+
     public boolean isEndGameNode() {
-        return this.getState().checkGameOver();
+        //Called for every node the search pops, so the answer is kept:
+        if (!this.endGameKnown) {
+            this.endGame = this.getState().checkGameOver(this.currentPlayer, this.getLegalMoves());
+            this.endGameKnown = true;
+        }
+        return this.endGame;
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi.ai;
+
+import ai.SearchBoard;
+import reversi.BitBoard;
+import reversi.Move;
+import reversi.State;
+import reversi.Utils;
+
+/**
+ * Reversi position for the make/unmake searches. Moves are square indices
+ * as defined by BitBoard and the undo record is the flipped discs mask.
+ */
+public class ReversiSearchBoard extends SearchBoard {
+
+    public static final int MAX_MOVES = Utils.BOARD_SIZE * Utils.BOARD_SIZE;
+
+    //Corners first, the squares next to them (C and X squares) last:
+    private static final int[] SQUARE_SCORES = {
+        100, -20,  10,   5,   5,  10, -20, 100,
+        -20, -50,  -2,  -2,  -2,  -2, -50, -20,
+         10,  -2,   1,   1,   1,   1,  -2,  10,
+          5,  -2,   1,   0,   0,   1,  -2,   5,
+          5,  -2,   1,   0,   0,   1,  -2,   5,
+         10,  -2,   1,   1,   1,   1,  -2,  10,
+        -20, -50,  -2,  -2,  -2,  -2, -50, -20,
+        100, -20,  10,   5,   5,  10, -20, 100
+    };
+
+    private State state;
+    private int currentPlayer;
+    //Created by the first evaluation, then updated by every move:
+    private EvaluationFeatures features;
+
+    public ReversiSearchBoard(State s, int currentPlayer) {
+        this.state = s;
+        this.currentPlayer = currentPlayer;
+    }
+
+    public State getState() {
+        return this.state;
+    }
+
+    public int getCurrentPlayer() {
+        return this.currentPlayer;
+    }
+
+    EvaluationFeatures getFeatures() {
+        if (this.features == null) {
+            this.features = new EvaluationFeatures(this.state);
+        }
+        return this.features;
+    }
+
+    public int getMaxMoves() {
+        return MAX_MOVES;
+    }
+
+    public int generateMoves(int[] moves) {
+        long mask = this.state.legalMovesMask(this.currentPlayer);
+        int count = 0;
+        while (mask != 0) {
+            moves[count] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            count++;
+        }
+        return count;
+    }
+
+    public long makeMove(int move) {
+        long flipped = 0;
+        if (move != PASS) {
+            flipped = this.state.makeMove(move, this.currentPlayer);
+            if (this.features != null) {
+                this.features.makeMove(move, flipped, this.currentPlayer);
+            }
+        }
+        this.currentPlayer = Utils.getOpponentsColour(this.currentPlayer);
+        return flipped;
+    }
+
+    public void undoMove(int move, long undo) {
+        this.currentPlayer = Utils.getOpponentsColour(this.currentPlayer);
+        if (move != PASS) {
+            this.state.undoMove(move, this.currentPlayer, undo);
+            if (this.features != null) {
+                this.features.undoMove(move, undo, this.currentPlayer);
+            }
+        }
+    }
+
+    public boolean isEndGame() {
+        return this.state.checkGameOver();
+    }
+
+    public int getOutcome() {
+        long own = this.state.getDiscs(this.currentPlayer);
+        long opp = this.state.getDiscs(Utils.getOpponentsColour(this.currentPlayer));
+        return Integer.signum(Long.bitCount(own) - Long.bitCount(opp));
+    }
+
+    public int getStaticMoveScore(int move) {
+        return SQUARE_SCORES[move];
+    }
+
+    public long getHash() {
+        return this.state.getHash(this.currentPlayer);
+    }
+
+    public SearchBoard copy() {
+        return new ReversiSearchBoard(new State(this.state), this.currentPlayer);
+    }
+
+    public ai.Move toMove(int move) {
+        return new Move(BitBoard.getX(move), BitBoard.getY(move), this.currentPlayer);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi.ai;
+
+import reversi.BitBoard;
+
+/**
+ * Finds the stable discs of a position, the discs that no sequence of moves
+ * can flip any more. The result is a subset of the truly stable discs:
+ * <ul>
+ * <li>edge discs that no move on their edge can flip, from a table of all
+ * the edge configurations;</li>
+ * <li>discs whose four lines (row, column, diagonals) are full;</li>
+ * <li>inner discs that have, in each of the four directions, a full line or
+ * a stable disc of their colour next to them, found repeatedly.</li>
+ * </ul>
+ *
+ * @author cyberpython
+ */
+public class Stability {
+
+    private static final long A_FILE = 0x0101010101010101L;
+    private static final long INNER_SQUARES = 0x007e7e7e7e7e7e00L;
+    //Gathers the A file into the top byte, row 0 in bit 56:
+    private static final long FILE_TO_BYTE = 0x0102040810204080L;
+
+    //The stable discs of the own side on an edge, indexed by own << 8 | opp:
+    private static final byte[] EDGE_STABLE = new byte[256 * 256];
+    //A byte spread over the A file, bit 0 in row 0:
+    private static final long[] FILE_OF_BYTE = new long[256];
+
+    static {
+        boolean[] known = new boolean[256 * 256];
+        for (int own = 0; own < 256; own++) {
+            for (int opp = 0; opp < 256; opp++) {
+                if ((own & opp) == 0) {
+                    findEdgeStable(own, opp, known);
+                }
+            }
+        }
+        for (int b = 0; b < 256; b++) {
+            for (int y = 0; y < 8; y++) {
+                if ((b & (1 << y)) != 0) {
+                    FILE_OF_BYTE[b] |= 1L << (y * 8);
+                }
+            }
+        }
+    }
+
+    /**
+     * The stable discs of the player owning <code>own</code>.
+     */
+    public static long stableDiscs(long own, long opp) {
+        long stable = edgeStable(own, opp);
+
+        long discs = own | opp;
+        long line = discs & (discs >>> 1);
+        line &= line >>> 2;
+        line &= line >>> 4;
+        long fullRows = (line & A_FILE) * 0xFF;
+        line = discs & ((discs >>> 8) | (discs << 56));
+        line &= (line >>> 16) | (line << 48);
+        line &= (line >>> 32) | (line << 32);
+        long fullFiles = line;
+        //A diagonal is full where no empty square reaches along it:
+        long empty = ~discs;
+        long fullDown = ~(fill(empty, 9, BitBoard.NOT_A_FILE) | fillBack(empty, 9, BitBoard.NOT_H_FILE));
+        long fullUp = ~(fill(empty, 7, BitBoard.NOT_H_FILE) | fillBack(empty, 7, BitBoard.NOT_A_FILE));
+        stable |= own & fullRows & fullFiles & fullDown & fullUp;
+
+        //Inner discs with a full line or a stable neighbour in every direction:
+        long candidates = own & INNER_SQUARES;
+        long previous;
+        do {
+            previous = stable;
+            long rows = (stable >>> 1) | (stable << 1) | fullRows;
+            long files = (stable >>> 8) | (stable << 8) | fullFiles;
+            long down = (stable >>> 9) | (stable << 9) | fullDown;
+            long up = (stable >>> 7) | (stable << 7) | fullUp;
+            stable |= rows & files & down & up & candidates;
+        } while (stable != previous);
+        return stable;
+    }
+
+    public static int count(long own, long opp) {
+        return Long.bitCount(stableDiscs(own, opp));
+    }
+
+    //The squares reached from b going shift squares up at a time, only
+    //landing on the squares of inside (Kogge-Stone fill):
+    private static long fill(long b, int shift, long inside) {
+        b |= inside & (b << shift);
+        inside &= inside << shift;
+        b |= inside & (b << (2 * shift));
+        inside &= inside << (2 * shift);
+        b |= inside & (b << (4 * shift));
+        return b;
+    }
+
+    private static long fillBack(long b, int shift, long inside) {
+        b |= inside & (b >>> shift);
+        inside &= inside >>> shift;
+        b |= inside & (b >>> (2 * shift));
+        inside &= inside >>> (2 * shift);
+        b |= inside & (b >>> (4 * shift));
+        return b;
+    }
+
+    //The stable discs of own on the four edges:
+    private static long edgeStable(long own, long opp) {
+        long stable = edgeStable((int) own & 0xFF, (int) opp & 0xFF);
+        stable |= edgeStable((int) (own >>> 56), (int) (opp >>> 56)) << 56;
+        stable |= fileOf(edgeStable(byteOf(own), byteOf(opp)));
+        stable |= fileOf(edgeStable(byteOf(own >>> 7), byteOf(opp >>> 7))) << 7;
+        return stable;
+    }
+
+    private static long edgeStable(int own, int opp) {
+        return EDGE_STABLE[(own << 8) | opp] & 0xFF;
+    }
+
+    //The A file of b as a byte, row 0 in bit 0:
+    private static int byteOf(long b) {
+        return (int) (((b & A_FILE) * FILE_TO_BYTE) >>> 56);
+    }
+
+    private static long fileOf(long b) {
+        return FILE_OF_BYTE[(int) b];
+    }
+
+    //The discs of own on an 8-square line that stay own whatever is played
+    //on the empty squares of the line, by either side in any order:
+    private static int findEdgeStable(int own, int opp, boolean[] known) {
+        int index = (own << 8) | opp;
+        if (known[index]) {
+            return EDGE_STABLE[index] & 0xFF;
+        }
+        int stable = own;
+        int empty = ~(own | opp) & 0xFF;
+        for (int x = 0; (x < 8) && (stable != 0); x++) {
+            if ((empty & (1 << x)) != 0) {
+                int flipped = lineFlips(own, opp, x);
+                stable &= findEdgeStable(own | flipped | (1 << x), opp & ~flipped, known);
+                flipped = lineFlips(opp, own, x);
+                stable &= findEdgeStable(own & ~flipped, opp | flipped | (1 << x), known);
+            }
+        }
+        EDGE_STABLE[index] = (byte) stable;
+        known[index] = true;
+        return stable;
+    }
+
+    //The discs of opp a disc of own on x would flip along the line:
+    private static int lineFlips(int own, int opp, int x) {
+        int flipped = 0;
+        int run = 0;
+        int y = x - 1;
+        while ((y >= 0) && ((opp & (1 << y)) != 0)) {
+            run |= 1 << y;
+            y--;
+        }
+        if ((y >= 0) && ((own & (1 << y)) != 0)) {
+            flipped |= run;
+        }
+        run = 0;
+        y = x + 1;
+        while ((y < 8) && ((opp & (1 << y)) != 0)) {
+            run |= 1 << y;
+            y++;
+        }
+        if ((y < 8) && ((own & (1 << y)) != 0)) {
+            flipped |= run;
+        }
+        return flipped;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi.application;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import ai.MiniMax;
+import ai.MiniMax.SearchAlgorithm;
+import reversi.Move;
+import reversi.State;
+import reversi.Utils;
+import reversi.ai.ReversiEvaluator;
+import reversi.ai.ReversiEvaluator.EvaluationMethod;
+import reversi.ai.ReversiNode;
+
+/**
+ * Measures the speedup of the YBWC search for 1, 2, 4... threads over the
+ * same search run serially (without a pool, so with the same move ordering),
+ * on a fixed set of positions reached by random moves from the start of the
+ * game, and the playouts per second of MCTS. Every configuration is run once
+ * untimed and its time is the median of REPETITIONS runs.
+ * <p>
+ * Usage: Benchmark [depth] [positions] [maxThreads]
+ */
+public class Benchmark {
+
+    private static final long SEED = 2010;
+    private static final int REPETITIONS = 5;
+
+    public static void main(String[] args) {
+        int depth = 7;
+        int count = 30;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        if (args.length > 0) {
+            depth = Integer.parseInt(args[0]);
+        }
+        if (args.length > 1) {
+            count = Integer.parseInt(args[1]);
+        }
+        if (args.length > 2) {
+            maxThreads = Integer.parseInt(args[2]);
+        }
+
+        State[] positions = new State[count];
+        int[] players = new int[count];
+        createPositions(positions, players);
+
+        System.out.println("Depth " + depth + ", " + count + " positions");
+        long serial = time(positions, players, depth, null);
+        System.out.println("YBWC, serial: " + serial + "ms");
+
+        long single = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long time = time(positions, players, depth, pool);
+            pool.shutdown();
+            if (threads == 1) {
+                single = time;
+            }
+            System.out.println("YBWC, " + threads + " thread(s): " + time + "ms, speedup " + speedup(serial, time)
+                    + " over serial, " + speedup(single, time) + " over 1 thread");
+        }
+
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            ForkJoinPool pool = null;
+            if (threads > 1) {
+                pool = new ForkJoinPool(threads);
+            }
+            System.out.println("MCTS, " + threads + " thread(s): " + Math.round(playoutsPerSecond(positions, players, pool)) + " playouts/s");
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    //1, 2, 4... and maxThreads last:
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if ((threads < maxThreads) && (threads * 2 > maxThreads)) {
+            return maxThreads;
+        }
+        return threads * 2;
+    }
+
+    private static void createPositions(State[] positions, int[] players) {
+        Random random = new Random(SEED);
+        int i = 0;
+        while (i < positions.length) {
+            State s = new State();
+            int player = Utils.BLACK;
+            int plies = 10 + random.nextInt(30);
+            for (int ply = 0; (ply < plies) && (!s.checkGameOver()); ply++) {
+                Vector<Move> moves = s.getValidMoves(player);
+                if (!moves.isEmpty()) {
+                    s = s.getChildState(moves.get(random.nextInt(moves.size())));
+                }
+                player = Utils.getOpponentsColour(player);
+            }
+            if (s.mobility(player) == 0) {
+                player = Utils.getOpponentsColour(player);
+            }
+            if (!s.checkGameOver()) {
+                positions[i] = s;
+                players[i] = player;
+                i++;
+            }
+        }
+    }
+
+    //The median time of YBWC on the pool (serial without one), after a run
+    //that is not timed so that the code is compiled before it is measured:
+    private static long time(State[] positions, int[] players, int depth, ForkJoinPool pool) {
+        run(positions, players, depth, SearchAlgorithm.YBWC, pool);
+        long[] times = new long[REPETITIONS];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = run(positions, players, depth, SearchAlgorithm.YBWC, pool);
+        }
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+
+    private static long run(State[] positions, int[] players, int depth, SearchAlgorithm algorithm, ForkJoinPool pool) {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < positions.length; i++) {
+            ReversiNode n = new ReversiNode(new State(positions[i]), players[i]);
+            MiniMax m = new MiniMax();
+            m.setForkJoinPool(pool);
+            m.apply(n, depth, algorithm, new ReversiEvaluator(players[i], EvaluationMethod.VALID_MOVES_AND_SIDES_COUNT));
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private static double playoutsPerSecond(State[] positions, int[] players, ForkJoinPool pool) {
+        double total = 0;
+        for (int i = 0; i < positions.length; i++) {
+            ReversiNode n = new ReversiNode(new State(positions[i]), players[i]);
+            MiniMax m = new MiniMax();
+            m.setForkJoinPool(pool);
+            m.apply(n, 0, SearchAlgorithm.MCTS, new ReversiEvaluator(players[i], EvaluationMethod.VALID_MOVES_AND_SIDES_COUNT));
+            total += m.getPlayoutsPerSecond();
+        }
+        return total / positions.length;
+    }
+
+    private static String speedup(long reference, long time) {
+        return (Math.round(100.0 * reference / Math.max(1, time)) / 100.0) + "x";
+    }
+}
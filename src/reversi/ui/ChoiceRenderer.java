@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2010 Georgios Migdos <cyberpython@gmail.com>, Filia Dova
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package reversi.ui;
+
+import ai.MiniMax.SearchAlgorithm;
+import java.awt.Component;
+import java.util.HashMap;
+import java.util.Map;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import reversi.ai.ReversiEvaluator.EvaluationMethod;
+
+/**
+ * Shows the choices of a combo box by a readable label instead of the name
+ * of their enum constant.
+ *
+ * @author cyberpython
+ */
+public class ChoiceRenderer extends DefaultListCellRenderer {
+
+    private static final long serialVersionUID = 1L;
+
+    private Map<Object, String> labels;
+
+    public ChoiceRenderer(Map<Object, String> labels) {
+        this.labels = labels;
+    }
+
+    public static ChoiceRenderer forAlgorithms() {
+        Map<Object, String> labels = new HashMap<Object, String>();
+        labels.put(SearchAlgorithm.MINIMAX, "MiniMax");
+        labels.put(SearchAlgorithm.ALPHA_BETA_PRUNING, "Alpha-Beta Pruning");
+        labels.put(SearchAlgorithm.NEGAMAX, "NegaMax");
+        labels.put(SearchAlgorithm.PVS, "Principal Variation Search");
+        labels.put(SearchAlgorithm.MTDF, "MTD(f)");
+        labels.put(SearchAlgorithm.LAZY_SMP, "Lazy SMP");
+        labels.put(SearchAlgorithm.YBWC, "Young Brothers Wait");
+        labels.put(SearchAlgorithm.MCTS, "Monte Carlo Tree Search");
+        return new ChoiceRenderer(labels);
+    }
+
+    public static ChoiceRenderer forEvaluationMethods() {
+        Map<Object, String> labels = new HashMap<Object, String>();
+        labels.put(EvaluationMethod.VALID_MOVES_AND_TOTAL_SCORE, "Mobility + discs");
+        labels.put(EvaluationMethod.VALID_MOVES_AND_SIDES_COUNT, "Mobility + sides");
+        labels.put(EvaluationMethod.VALID_MOVES_AND_CORNERS, "Mobility + corners");
+        labels.put(EvaluationMethod.VALID_MOVES_AND_WEIGHTED_SQUARES, "Mobility + weighted squares");
+        labels.put(EvaluationMethod.VALID_MOVES_AND_STABILITY, "Mobility + stable discs");
+        labels.put(EvaluationMethod.VALID_MOVES_AND_FRONTIER, "Mobility + frontier");
+        labels.put(EvaluationMethod.VALID_MOVES_AND_POTENTIAL_MOBILITY, "Mobility + potential mobility");
+        labels.put(EvaluationMethod.WEIGHTED_MOBILITY, "Weighted mobility");
+        return new ChoiceRenderer(labels);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+        String label = this.labels.get(value);
+        if (label == null) {
+            label = String.valueOf(value);
+        }
+        return super.getListCellRendererComponent(list, label, index, isSelected, cellHasFocus);
+    }
+}
@@ -108,23 +108,9 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
 
         int d = (Integer) this.jSpinner1.getModel().getValue();
 
-        EvaluationMethod evalMethod;
+        EvaluationMethod evalMethod = (EvaluationMethod) this.jComboBox2.getSelectedItem();
 
-        if (this.jRadioButton5.isSelected()) {
-            evalMethod = EvaluationMethod.VALID_MOVES_AND_TOTAL_SCORE;
-        } else if (this.jRadioButton6.isSelected()) {
-            evalMethod = EvaluationMethod.VALID_MOVES_AND_SIDES_COUNT;
-        } else {
-            evalMethod = EvaluationMethod.VALID_MOVES_AND_CORNERS;
-        }
-
-        MiniMax.SearchAlgorithm algorithm;
-
-        if (this.jRadioButton8.isSelected()) {
-            algorithm = MiniMax.SearchAlgorithm.MINIMAX;
-        } else {
-            algorithm = MiniMax.SearchAlgorithm.ALPHA_BETA_PRUNING;
-        }
+        MiniMax.SearchAlgorithm algorithm = (MiniMax.SearchAlgorithm) this.jComboBox1.getSelectedItem();
 
         updateUndoRedoControls();
 
@@ -168,11 +154,8 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
         this.jLabel3.setEnabled(enabled);
         this.jLabel4.setEnabled(enabled);
         this.jLabel7.setEnabled(enabled);
-        this.jRadioButton5.setEnabled(enabled);
-        this.jRadioButton6.setEnabled(enabled);
-        this.jRadioButton7.setEnabled(enabled);
-        this.jRadioButton8.setEnabled(enabled);
-        this.jRadioButton9.setEnabled(enabled);
+        this.jComboBox1.setEnabled(enabled);
+        this.jComboBox2.setEnabled(enabled);
         this.jSpinner1.setEnabled(enabled);
     }
 
@@ -251,9 +234,7 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
     private void initComponents() {
 
         buttonGroup1 = new javax.swing.ButtonGroup();
-        buttonGroup2 = new javax.swing.ButtonGroup();
         buttonGroup3 = new javax.swing.ButtonGroup();
-        buttonGroup4 = new javax.swing.ButtonGroup();
         jPanel8 = new javax.swing.JPanel();
         jPanel6 = new javax.swing.JPanel();
         jPanel3 = new javax.swing.JPanel();
@@ -271,13 +252,10 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
         jButton2 = new javax.swing.JButton();
         jLabel5 = new javax.swing.JLabel();
         jSpinner1 = new javax.swing.JSpinner();
-        jRadioButton5 = new javax.swing.JRadioButton();
-        jRadioButton6 = new javax.swing.JRadioButton();
-        jRadioButton7 = new javax.swing.JRadioButton();
+        jComboBox2 = new javax.swing.JComboBox<EvaluationMethod>();
         jLabel4 = new javax.swing.JLabel();
         jLabel7 = new javax.swing.JLabel();
-        jRadioButton8 = new javax.swing.JRadioButton();
-        jRadioButton9 = new javax.swing.JRadioButton();
+        jComboBox1 = new javax.swing.JComboBox<MiniMax.SearchAlgorithm>();
         jPanel4 = new javax.swing.JPanel();
         jPanel5 = new javax.swing.JPanel();
         jButton3 = new javax.swing.JButton();
@@ -356,25 +334,17 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
 
         jSpinner1.setModel(new javax.swing.SpinnerNumberModel(3, 1, 5, 1));
 
-        buttonGroup4.add(jRadioButton5);
-        jRadioButton5.setText("Method 1");
-
-        buttonGroup4.add(jRadioButton6);
-        jRadioButton6.setText("Method 2");
-
-        buttonGroup4.add(jRadioButton7);
-        jRadioButton7.setSelected(true);
-        jRadioButton7.setText("Method 3");
+        jComboBox2.setModel(new javax.swing.DefaultComboBoxModel<EvaluationMethod>(EvaluationMethod.values()));
+        jComboBox2.setRenderer(ChoiceRenderer.forEvaluationMethods());
+        jComboBox2.setSelectedItem(EvaluationMethod.VALID_MOVES_AND_CORNERS);
 
         jLabel4.setText("<html><b>Search tree depth :</b></html>");
 
         jLabel7.setText("<html><b>Algorithm:</b></html>");
 
-        buttonGroup2.add(jRadioButton8);
-        jRadioButton8.setText("MiniMax");
-
-        buttonGroup2.add(jRadioButton9);
-        jRadioButton9.setText("Alpha-Beta Pruning");
+        jComboBox1.setModel(new javax.swing.DefaultComboBoxModel<MiniMax.SearchAlgorithm>(MiniMax.SearchAlgorithm.values()));
+        jComboBox1.setRenderer(ChoiceRenderer.forAlgorithms());
+        jComboBox1.setSelectedItem(MiniMax.SearchAlgorithm.ALPHA_BETA_PRUNING);
 
         javax.swing.GroupLayout jPanel1Layout = new javax.swing.GroupLayout(jPanel1);
         jPanel1.setLayout(jPanel1Layout);
@@ -401,17 +371,11 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(jLabel7, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(jRadioButton8)
-                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(jRadioButton9))
+                        .addComponent(jComboBox1, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
                     .addGroup(jPanel1Layout.createSequentialGroup()
                         .addComponent(jLabel3, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(jRadioButton5)
-                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(jRadioButton6)
-                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(jRadioButton7)))
+                        .addComponent(jComboBox2, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, 115, Short.MAX_VALUE)
                 .addComponent(jButton1, javax.swing.GroupLayout.PREFERRED_SIZE, 84, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addContainerGap())
@@ -434,8 +398,7 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
                             .addComponent(jRadioButton1)
                             .addComponent(jRadioButton2)
                             .addComponent(jLabel7, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
-                            .addComponent(jRadioButton8)
-                            .addComponent(jRadioButton9))
+                            .addComponent(jComboBox1, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                             .addComponent(jLabel2, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
@@ -446,9 +409,7 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                             .addComponent(jLabel3, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
-                            .addComponent(jRadioButton5)
-                            .addComponent(jRadioButton6)
-                            .addComponent(jRadioButton7))))
+                            .addComponent(jComboBox2, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jSeparator1, javax.swing.GroupLayout.PREFERRED_SIZE, 10, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addContainerGap())
@@ -694,9 +655,7 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private reversi.ui.BoardPanel boardPanel1;
     private javax.swing.ButtonGroup buttonGroup1;
-    private javax.swing.ButtonGroup buttonGroup2;
     private javax.swing.ButtonGroup buttonGroup3;
-    private javax.swing.ButtonGroup buttonGroup4;
     private javax.swing.JButton jButton1;
     private javax.swing.JButton jButton2;
     private javax.swing.JButton jButton3;
@@ -705,6 +664,8 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
     private javax.swing.JButton jButton6;
     private javax.swing.JButton jButton7;
     private javax.swing.JButton jButton8;
+    private javax.swing.JComboBox<MiniMax.SearchAlgorithm> jComboBox1;
+    private javax.swing.JComboBox<EvaluationMethod> jComboBox2;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
@@ -726,11 +687,6 @@ public class ReversiApplet extends javax.swing.JApplet implements GameUndoRedoLi
     private javax.swing.JRadioButton jRadioButton2;
     private javax.swing.JRadioButton jRadioButton3;
     private javax.swing.JRadioButton jRadioButton4;
-    private javax.swing.JRadioButton jRadioButton5;
-    private javax.swing.JRadioButton jRadioButton6;
-    private javax.swing.JRadioButton jRadioButton7;
-    private javax.swing.JRadioButton jRadioButton8;
-    private javax.swing.JRadioButton jRadioButton9;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JSeparator jSeparator1;
     private javax.swing.JSpinner jSpinner1;